@@ -0,0 +1,62 @@
+package com.mindmap.cache;
+
+import com.mindmap.model.Edge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Edge ids by endpoint, in both directions, so everything that starts from a node (cascades,
+// duplicate checks, traversals) costs its degree rather than a scan of the board's edges.
+// Not thread-safe; BoardState serialises access.
+class AdjacencyIndex {
+
+    private final Map<String, Set<String>> outgoing = new HashMap<>();
+    private final Map<String, Set<String>> incoming = new HashMap<>();
+
+    void add(Edge edge) {
+        link(outgoing, edge.getSource(), edge.getId());
+        link(incoming, edge.getTarget(), edge.getId());
+    }
+
+    void remove(Edge edge) {
+        unlink(outgoing, edge.getSource(), edge.getId());
+        unlink(incoming, edge.getTarget(), edge.getId());
+    }
+
+    Set<String> outgoing(String nodeId) {
+        return outgoing.getOrDefault(nodeId, Set.of());
+    }
+
+    Set<String> incoming(String nodeId) {
+        return incoming.getOrDefault(nodeId, Set.of());
+    }
+
+    // Both directions, a self-loop once
+    List<String> edgesOf(String nodeId) {
+        Set<String> out = outgoing(nodeId);
+        List<String> ids = new ArrayList<>(out);
+        for (String id : incoming(nodeId)) {
+            if (!out.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static void link(Map<String, Set<String>> index, String nodeId, String edgeId) {
+        if (nodeId != null) {
+            index.computeIfAbsent(nodeId, id -> new HashSet<>(4)).add(edgeId);
+        }
+    }
+
+    private static void unlink(Map<String, Set<String>> index, String nodeId, String edgeId) {
+        Set<String> ids = nodeId != null ? index.get(nodeId) : null;
+        if (ids != null && ids.remove(edgeId) && ids.isEmpty()) {
+            index.remove(nodeId);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.mindmap.cache;
+
+import com.mindmap.graphql.payload.NodeCluster;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import com.mindmap.spatial.Box;
+import com.mindmap.spatial.QuadTree;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Getter
+public class BoardState {
+
+    // Rough per-entity footprints used to weigh boards against the memory budget. Node and edge
+    // figures include their quadtree and adjacency entries; each overview grid adds a cell slot
+    // per node on top.
+    private static final long NODE_OVERHEAD_BYTES = 740;
+    private static final long EDGE_OVERHEAD_BYTES = 544;
+    private static final long CLUSTER_ENTRY_BYTES = 120;
+    // Used for nodes that have never been resized; the client draws them at this size
+    private static final double DEFAULT_WIDTH = 80;
+    private static final double DEFAULT_HEIGHT = 50;
+
+    private final String boardId;
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final Map<String, Edge> edges = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    // Node bounding boxes, kept in step with the nodes map
+    @Getter(AccessLevel.NONE)
+    private final QuadTree<Node> spatialIndex = new QuadTree<>();
+    // Overview clusters by cell size, built on first request and then kept up to date
+    @Getter(AccessLevel.NONE)
+    private final Map<Double, ClusterGrid> clusterGrids = new HashMap<>();
+    // Edge ids by endpoint, kept in step with the edges map
+    @Getter(AccessLevel.NONE)
+    private final AdjacencyIndex adjacency = new AdjacencyIndex();
+
+    public BoardState(String boardId, List<Node> nodes, List<Edge> edges) {
+        this.boardId = boardId;
+        nodes.forEach(this::putNode);
+        edges.forEach(this::putEdge);
+    }
+
+    public Node getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    public Edge getEdge(String edgeId) {
+        return edges.get(edgeId);
+    }
+
+    public List<Node> nodeList() {
+        return new ArrayList<>(nodes.values());
+    }
+
+    public List<Edge> edgeList() {
+        return new ArrayList<>(edges.values());
+    }
+
+    // Nodes whose box overlaps the given area
+    public List<Node> nodesWithin(double minX, double minY, double maxX, double maxY) {
+        synchronized (spatialIndex) {
+            return spatialIndex.query(minX, minY, maxX, maxY);
+        }
+    }
+
+    public List<NodeCluster> clusters(double cellSize) {
+        synchronized (clusterGrids) {
+            return clusterGrids.computeIfAbsent(cellSize, size -> new ClusterGrid(size, nodes.values()))
+                    .clusters(nodes);
+        }
+    }
+
+    public boolean putNode(Node node) {
+        Node previous = nodes.put(node.getId(), node);
+        estimatedBytes.addAndGet(sizeOf(node) - sizeOf(previous));
+        index(node);
+        synchronized (clusterGrids) {
+            clusterGrids.values().forEach(grid -> grid.put(node));
+        }
+        return previous == null;
+    }
+
+    public Node removeNode(String nodeId) {
+        Node removed = nodes.remove(nodeId);
+        estimatedBytes.addAndGet(-sizeOf(removed));
+        synchronized (spatialIndex) {
+            spatialIndex.remove(nodeId);
+        }
+        synchronized (clusterGrids) {
+            clusterGrids.values().forEach(grid -> grid.remove(nodeId));
+        }
+        return removed;
+    }
+
+    public boolean putEdge(Edge edge) {
+        Edge previous = edges.put(edge.getId(), edge);
+        estimatedBytes.addAndGet(sizeOf(edge) - sizeOf(previous));
+        synchronized (adjacency) {
+            if (previous != null) {
+                adjacency.remove(previous);
+            }
+            adjacency.add(edge);
+        }
+        return previous == null;
+    }
+
+    public Edge removeEdge(String edgeId) {
+        Edge removed = edges.remove(edgeId);
+        estimatedBytes.addAndGet(-sizeOf(removed));
+        if (removed != null) {
+            synchronized (adjacency) {
+                adjacency.remove(removed);
+            }
+        }
+        return removed;
+    }
+
+    public List<Edge> removeEdgesOf(String nodeId) {
+        List<Edge> removed = new ArrayList<>();
+        synchronized (adjacency) {
+            for (String edgeId : adjacency.edgesOf(nodeId)) {
+                Edge edge = edges.remove(edgeId);
+                if (edge != null) {
+                    adjacency.remove(edge);
+                    removed.add(edge);
+                }
+            }
+        }
+        estimatedBytes.addAndGet(-EDGE_OVERHEAD_BYTES * removed.size());
+        return removed;
+    }
+
+    // Edges leaving or entering the node
+    public List<Edge> edgesOf(String nodeId) {
+        synchronized (adjacency) {
+            return edgesById(adjacency.edgesOf(nodeId));
+        }
+    }
+
+    public List<Edge> outgoingEdges(String nodeId) {
+        synchronized (adjacency) {
+            return edgesById(adjacency.outgoing(nodeId));
+        }
+    }
+
+    public List<Edge> incomingEdges(String nodeId) {
+        synchronized (adjacency) {
+            return edgesById(adjacency.incoming(nodeId));
+        }
+    }
+
+    // An edge already linking source to target, in that direction
+    public Edge findEdge(String source, String target) {
+        synchronized (adjacency) {
+            for (String edgeId : adjacency.outgoing(source)) {
+                Edge edge = edges.get(edgeId);
+                if (edge != null && target.equals(edge.getTarget())) {
+                    return edge;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int weightKb() {
+        long grids;
+        synchronized (clusterGrids) {
+            grids = clusterGrids.size();
+        }
+        long bytes = estimatedBytes.get() + grids * nodes.size() * CLUSTER_ENTRY_BYTES;
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
+    }
+
+    // Positions are node centres, as in Cytoscape
+    public static Box boundsOf(Node node) {
+        return Box.around(
+                node.getX() != null ? node.getX() : 0,
+                node.getY() != null ? node.getY() : 0,
+                node.getWidth() != null ? node.getWidth() : DEFAULT_WIDTH,
+                node.getHeight() != null ? node.getHeight() : DEFAULT_HEIGHT);
+    }
+
+    private List<Edge> edgesById(Iterable<String> edgeIds) {
+        List<Edge> found = new ArrayList<>();
+        for (String edgeId : edgeIds) {
+            Edge edge = edges.get(edgeId);
+            if (edge != null) {
+                found.add(edge);
+            }
+        }
+        return found;
+    }
+
+    private void index(Node node) {
+        Box bounds = boundsOf(node);
+        synchronized (spatialIndex) {
+            spatialIndex.put(node.getId(), node, bounds);
+        }
+    }
+
+    private static long sizeOf(Node node) {
+        if (node == null) {
+            return 0;
+        }
+        long strings = length(node.getLabel()) + length(node.getData());
+        return NODE_OVERHEAD_BYTES + strings * 2;
+    }
+
+    private static long sizeOf(Edge edge) {
+        return edge == null ? 0 : EDGE_OVERHEAD_BYTES;
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,192 @@
+package com.mindmap.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.mindmap.graphql.payload.NodeCluster;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import com.mindmap.repository.EdgeRepository;
+import com.mindmap.repository.NodeRepository;
+import com.mindmap.service.NodeWriteBehindQueue;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class BoardStateCache {
+
+    private final NodeRepository nodeRepository;
+    private final EdgeRepository edgeRepository;
+    private final NodeWriteBehindQueue nodeWriteBehindQueue;
+    private final Cache<String, BoardState> boards;
+
+    // Reverse lookups so getNode/getEdge by id can be served without knowing the board
+    private final Map<String, String> nodeBoards = new ConcurrentHashMap<>();
+    private final Map<String, String> edgeBoards = new ConcurrentHashMap<>();
+
+    public BoardStateCache(NodeRepository nodeRepository,
+                           EdgeRepository edgeRepository,
+                           NodeWriteBehindQueue nodeWriteBehindQueue,
+                           MeterRegistry meterRegistry,
+                           @Value("${mindmap.board-cache.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${mindmap.board-cache.max-memory-mb:256}") long maxMemoryMb) {
+        this.nodeRepository = nodeRepository;
+        this.edgeRepository = edgeRepository;
+        this.nodeWriteBehindQueue = nodeWriteBehindQueue;
+        this.boards = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumWeight(maxMemoryMb * 1024)
+                .weigher((String boardId, BoardState state) -> state.weightKb())
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, boards, "boardState");
+    }
+
+    public BoardState getBoard(String boardId) {
+        return boards.get(boardId, this::load);
+    }
+
+    public Optional<BoardState> getBoardIfPresent(String boardId) {
+        return Optional.ofNullable(boards.getIfPresent(boardId));
+    }
+
+    public Optional<Node> findNode(String nodeId) {
+        String boardId = nodeBoards.get(nodeId);
+        if (boardId != null) {
+            BoardState state = boards.getIfPresent(boardId);
+            if (state != null) {
+                return Optional.ofNullable(state.getNode(nodeId));
+            }
+        }
+        return nodeRepository.findById(nodeId)
+                .map(node -> {
+                    Node cached = getBoard(node.getBoardId()).getNode(nodeId);
+                    return cached != null ? cached : node;
+                });
+    }
+
+    public Optional<Edge> findEdge(String edgeId) {
+        String boardId = edgeBoards.get(edgeId);
+        if (boardId != null) {
+            BoardState state = boards.getIfPresent(boardId);
+            if (state != null) {
+                return Optional.ofNullable(state.getEdge(edgeId));
+            }
+        }
+        return edgeRepository.findById(edgeId)
+                .map(edge -> {
+                    Edge cached = getBoard(edge.getBoardId()).getEdge(edgeId);
+                    return cached != null ? cached : edge;
+                });
+    }
+
+    public void putNode(Node node) {
+        BoardState state = boards.getIfPresent(node.getBoardId());
+        if (state == null) {
+            // Not resident; the next load will read it from Mongo
+            return;
+        }
+        nodeBoards.put(node.getId(), node.getBoardId());
+        int weight = state.weightKb();
+        state.putNode(node);
+        reweighIfChanged(state, weight);
+    }
+
+    public void putEdge(Edge edge) {
+        BoardState state = boards.getIfPresent(edge.getBoardId());
+        if (state == null) {
+            return;
+        }
+        edgeBoards.put(edge.getId(), edge.getBoardId());
+        int weight = state.weightKb();
+        state.putEdge(edge);
+        reweighIfChanged(state, weight);
+    }
+
+    public List<Edge> removeNode(String boardId, String nodeId) {
+        nodeBoards.remove(nodeId);
+        BoardState state = boards.getIfPresent(boardId);
+        if (state == null) {
+            return List.of();
+        }
+        state.removeNode(nodeId);
+        List<Edge> removedEdges = state.removeEdgesOf(nodeId);
+        removedEdges.forEach(edge -> edgeBoards.remove(edge.getId()));
+        reweigh(state);
+        return removedEdges;
+    }
+
+    public void removeEdge(String boardId, String edgeId) {
+        edgeBoards.remove(edgeId);
+        BoardState state = boards.getIfPresent(boardId);
+        if (state != null) {
+            state.removeEdge(edgeId);
+            reweigh(state);
+        }
+    }
+
+    // Building an overview grid the first time adds to the board's weight
+    public List<NodeCluster> clusters(String boardId, double cellSize) {
+        BoardState state = getBoard(boardId);
+        int weight = state.weightKb();
+        List<NodeCluster> clusters = state.clusters(cellSize);
+        reweighIfChanged(state, weight);
+        return clusters;
+    }
+
+    public void evict(String boardId) {
+        boards.invalidate(boardId);
+    }
+
+    public void evictAll() {
+        boards.invalidateAll();
+    }
+
+    private BoardState load(String boardId) {
+        if (nodeWriteBehindQueue.isEnabled()) {
+            // Never read a board back from Mongo while some of its writes are still queued or
+            // being written; flush waits for a scheduled flush already in progress
+            nodeWriteBehindQueue.flush();
+        }
+        List<Node> nodes = nodeRepository.findByBoardId(boardId);
+        List<Edge> edges = edgeRepository.findByBoardId(boardId);
+        nodes.forEach(node -> nodeBoards.put(node.getId(), boardId));
+        edges.forEach(edge -> edgeBoards.put(edge.getId(), boardId));
+        log.debug("Loaded board {} into memory ({} nodes, {} edges)", boardId, nodes.size(), edges.size());
+        return new BoardState(boardId, nodes, edges);
+    }
+
+    // Label and data edits change the estimate too, not only new entities
+    private void reweighIfChanged(BoardState state, int previousWeight) {
+        if (state.weightKb() != previousWeight) {
+            reweigh(state);
+        }
+    }
+
+    private void reweigh(BoardState state) {
+        // Re-inserting the same instance makes Caffeine recompute its weight
+        boards.asMap().computeIfPresent(state.getBoardId(), (id, current) -> current);
+    }
+
+    private void onRemoval(String boardId, BoardState state, RemovalCause cause) {
+        if (state == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        state.getNodes().keySet().forEach(nodeId -> nodeBoards.remove(nodeId, boardId));
+        state.getEdges().keySet().forEach(edgeId -> edgeBoards.remove(edgeId, boardId));
+        log.debug("Evicted board {} from memory ({})", boardId, cause);
+    }
+}
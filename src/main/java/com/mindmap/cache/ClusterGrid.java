@@ -0,0 +1,131 @@
+package com.mindmap.cache;
+
+import com.mindmap.graphql.payload.NodeCluster;
+import com.mindmap.model.Node;
+import com.mindmap.spatial.Box;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Nodes bucketed into square cells of one size, by centre. A node moving only dirties the cells it
+// left and entered; their summaries are rebuilt on the next read, the rest are reused.
+// Not thread-safe; BoardState serialises access.
+class ClusterGrid {
+
+    private final double cellSize;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<String, Long> cellOfNode = new HashMap<>();
+
+    ClusterGrid(double cellSize, Iterable<Node> nodes) {
+        this.cellSize = cellSize;
+        nodes.forEach(this::put);
+    }
+
+    double getCellSize() {
+        return cellSize;
+    }
+
+    void put(Node node) {
+        long key = keyOf(node);
+        Long previous = cellOfNode.put(node.getId(), key);
+        if (previous != null && previous != key) {
+            leave(previous, node.getId());
+        }
+        Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+        cell.members.add(node.getId());
+        // Size or label may have changed even if the cell did not
+        cell.summary = null;
+    }
+
+    void remove(String nodeId) {
+        Long previous = cellOfNode.remove(nodeId);
+        if (previous != null) {
+            leave(previous, nodeId);
+        }
+    }
+
+    List<NodeCluster> clusters(Map<String, Node> nodes) {
+        List<NodeCluster> clusters = new ArrayList<>(cells.size());
+        for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+            Cell cell = entry.getValue();
+            if (cell.summary == null) {
+                cell.summary = summarise(entry.getKey(), cell.members, nodes);
+            }
+            clusters.add(cell.summary);
+        }
+        return clusters;
+    }
+
+    private void leave(long key, String nodeId) {
+        Cell cell = cells.get(key);
+        cell.members.remove(nodeId);
+        if (cell.members.isEmpty()) {
+            cells.remove(key);
+        } else {
+            cell.summary = null;
+        }
+    }
+
+    private long keyOf(Node node) {
+        int column = (int) Math.floor(coordinate(node.getX()) / cellSize);
+        int row = (int) Math.floor(coordinate(node.getY()) / cellSize);
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+
+    // The largest node names the cluster, being the one a user would recognise from afar
+    private static NodeCluster summarise(long key, Set<String> members, Map<String, Node> nodes) {
+        double sumX = 0;
+        double sumY = 0;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        Node representative = null;
+        double largestArea = -1;
+        int count = 0;
+        for (String id : members) {
+            Node node = nodes.get(id);
+            if (node == null) {
+                continue;
+            }
+            Box bounds = BoardState.boundsOf(node);
+            sumX += bounds.centerX();
+            sumY += bounds.centerY();
+            minX = Math.min(minX, bounds.minX());
+            minY = Math.min(minY, bounds.minY());
+            maxX = Math.max(maxX, bounds.maxX());
+            maxY = Math.max(maxY, bounds.maxY());
+            double area = bounds.width() * bounds.height();
+            if (area > largestArea) {
+                largestArea = area;
+                representative = node;
+            }
+            count++;
+        }
+        return NodeCluster.builder()
+                .id(Long.toHexString(key))
+                .count(count)
+                .x(count > 0 ? sumX / count : 0)
+                .y(count > 0 ? sumY / count : 0)
+                .minX(minX)
+                .minY(minY)
+                .maxX(maxX)
+                .maxY(maxY)
+                .label(representative != null ? representative.getLabel() : null)
+                .representativeNodeId(representative != null ? representative.getId() : null)
+                .build();
+    }
+
+    private static double coordinate(Double value) {
+        return value != null ? value : 0;
+    }
+
+    private static final class Cell {
+        private final Set<String> members = new HashSet<>();
+        private NodeCluster summary;
+    }
+}
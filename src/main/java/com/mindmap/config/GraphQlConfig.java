@@ -0,0 +1,65 @@
+package com.mindmap.config;
+
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class GraphQlConfig {
+
+    // 64-bit integers such as event sequence numbers, which outgrow GraphQL's 32-bit Int
+    public static final GraphQLScalarType LONG = GraphQLScalarType.newScalar()
+            .name("Long")
+            .description("64-bit signed integer")
+            .coercing(new Coercing<Long, Long>() {
+                @Override
+                public Long serialize(Object value, GraphQLContext context, Locale locale) {
+                    if (value instanceof Number number) {
+                        return number.longValue();
+                    }
+                    throw new CoercingSerializeException("Expected a number but was " + value);
+                }
+
+                @Override
+                public Long parseValue(Object input, GraphQLContext context, Locale locale) {
+                    try {
+                        return input instanceof Number number ? number.longValue() : Long.parseLong(input.toString());
+                    } catch (NumberFormatException e) {
+                        throw new CoercingParseValueException("Invalid Long: " + input);
+                    }
+                }
+
+                @Override
+                public Long parseLiteral(Value<?> input, CoercedVariables variables, GraphQLContext context, Locale locale) {
+                    if (input instanceof IntValue intValue) {
+                        return intValue.getValue().longValueExact();
+                    }
+                    if (input instanceof StringValue stringValue) {
+                        try {
+                            return Long.parseLong(stringValue.getValue());
+                        } catch (NumberFormatException e) {
+                            throw new CoercingParseLiteralException("Invalid Long: " + stringValue.getValue());
+                        }
+                    }
+                    throw new CoercingParseLiteralException("Expected an integer literal");
+                }
+            })
+            .build();
+
+    @Bean
+    public RuntimeWiringConfigurer scalarWiringConfigurer() {
+        return wiringBuilder -> wiringBuilder.scalar(LONG);
+    }
+}
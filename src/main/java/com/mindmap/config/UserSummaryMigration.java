@@ -0,0 +1,26 @@
+package com.mindmap.config;
+
+import com.mindmap.service.UserSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "mindmap.migrations.user-summaries", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class UserSummaryMigration implements CommandLineRunner {
+
+    private final UserSummaryService userSummaryService;
+
+    @Override
+    public void run(String... args) {
+        // Only documents still holding a DBRef are touched, so this is a no-op once migrated
+        long migrated = userSummaryService.migrateDbRefs();
+        if (migrated > 0) {
+            log.info("Migrated {} documents from user DBRefs to embedded user summaries", migrated);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.mindmap.config;
 
+import com.mindmap.websocket.BoardEventsWebSocketHandler;
+import com.mindmap.websocket.CursorHandshakeInterceptor;
+import com.mindmap.websocket.CursorWebSocketHandler;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.graphql.server.webmvc.GraphQlWebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -11,15 +14,29 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final GraphQlWebSocketHandler graphQlWebSocketHandler;
+    private final CursorWebSocketHandler cursorWebSocketHandler;
+    private final CursorHandshakeInterceptor cursorHandshakeInterceptor;
+    private final BoardEventsWebSocketHandler boardEventsWebSocketHandler;
 
-    public WebSocketConfig(GraphQlWebSocketHandler graphQlWebSocketHandler) {
+    public WebSocketConfig(GraphQlWebSocketHandler graphQlWebSocketHandler,
+                           CursorWebSocketHandler cursorWebSocketHandler,
+                           CursorHandshakeInterceptor cursorHandshakeInterceptor,
+                           BoardEventsWebSocketHandler boardEventsWebSocketHandler) {
         this.graphQlWebSocketHandler = graphQlWebSocketHandler;
+        this.boardEventsWebSocketHandler = boardEventsWebSocketHandler;
+        this.cursorWebSocketHandler = cursorWebSocketHandler;
+        this.cursorHandshakeInterceptor = cursorHandshakeInterceptor;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(graphQlWebSocketHandler, "/graphql-ws")
                 .setAllowedOrigins("*");
+        registry.addHandler(boardEventsWebSocketHandler, "/board-events-ws")
+                .setAllowedOrigins("*");
+        registry.addHandler(cursorWebSocketHandler, "/cursor-ws")
+                .addInterceptors(cursorHandshakeInterceptor)
+                .setAllowedOrigins("*");
     }
 }
 
@@ -0,0 +1,18 @@
+package com.mindmap.graphql.input;
+
+import lombok.Data;
+
+@Data
+public class BoardOp {
+    private BoardOpType type;
+    // Target of UPDATE_* and DELETE_* operations; node operations also accept a ref from this batch
+    private String id;
+    // Client-side handle for CREATE_NODE, usable as an edge source/target or node id later in the same batch
+    private String ref;
+    // UPDATE_* only: fail the operation if the target has moved past this version
+    private Long expectedVersion;
+    private CreateNodeInput createNode;
+    private UpdateNodeInput updateNode;
+    private CreateEdgeInput createEdge;
+    private UpdateEdgeInput updateEdge;
+}
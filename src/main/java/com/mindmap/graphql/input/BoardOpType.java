@@ -0,0 +1,10 @@
+package com.mindmap.graphql.input;
+
+public enum BoardOpType {
+    CREATE_NODE,
+    UPDATE_NODE,
+    DELETE_NODE,
+    CREATE_EDGE,
+    UPDATE_EDGE,
+    DELETE_EDGE
+}
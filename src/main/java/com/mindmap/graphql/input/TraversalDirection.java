@@ -0,0 +1,8 @@
+package com.mindmap.graphql.input;
+
+public enum TraversalDirection {
+    // Follow edges from source to target, i.e. down a branch
+    OUTGOING,
+    INCOMING,
+    BOTH
+}
@@ -2,10 +2,27 @@ package com.mindmap.graphql.input;
 
 import lombok.Data;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Data
 public class UpdateEdgeInput {
     private String label;
     private String color;
     private String lineStyle;
-}
 
+    // Only the fields the client actually sent, keyed by Edge property name
+    public Map<String, Object> changedFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        if (label != null) {
+            fields.put("label", label);
+        }
+        if (color != null) {
+            fields.put("color", color);
+        }
+        if (lineStyle != null) {
+            fields.put("lineStyle", lineStyle);
+        }
+        return fields;
+    }
+}
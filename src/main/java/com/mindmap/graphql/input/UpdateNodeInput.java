@@ -2,6 +2,9 @@ package com.mindmap.graphql.input;
 
 import lombok.Data;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Data
 public class UpdateNodeInput {
     private String label;
@@ -16,5 +19,28 @@ public class UpdateNodeInput {
     private Boolean bold;
     private Boolean italic;
     private String data;
-}
 
+    // Only the fields the client actually sent, keyed by Node property name
+    public Map<String, Object> changedFields() {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        putIfSet(fields, "label", label);
+        putIfSet(fields, "x", x);
+        putIfSet(fields, "y", y);
+        putIfSet(fields, "color", color);
+        putIfSet(fields, "shape", shape);
+        putIfSet(fields, "size", size);
+        putIfSet(fields, "width", width);
+        putIfSet(fields, "height", height);
+        putIfSet(fields, "fontSize", fontSize);
+        putIfSet(fields, "bold", bold);
+        putIfSet(fields, "italic", italic);
+        putIfSet(fields, "data", data);
+        return fields;
+    }
+
+    private static void putIfSet(Map<String, Object> fields, String name, Object value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.mindmap.graphql.loader;
+
+import com.mindmap.model.User;
+import com.mindmap.repository.UserRepository;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@Component
+public class UserBatchLoader {
+
+    // One $in query per request for every distinct user id referenced in the response
+    public UserBatchLoader(BatchLoaderRegistry registry, UserRepository userRepository) {
+        registry.forTypePair(String.class, User.class)
+                .registerMappedBatchLoader((ids, env) -> Mono.fromCallable(() ->
+                        StreamSupport.stream(userRepository.findAllById(ids).spliterator(), false)
+                                .collect(Collectors.toMap(User::getId, Function.identity()))));
+    }
+}
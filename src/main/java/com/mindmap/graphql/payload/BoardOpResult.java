@@ -0,0 +1,26 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.graphql.input.BoardOpType;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A create undone by a delete later in the same batch is never written: its result, and those of
+// updates to it in between, stay successful but carry no id, node or edge
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardOpResult {
+    private int index;
+    private BoardOpType type;
+    private String id;
+    private String ref;
+    private boolean success;
+    private String error;
+    private Node node;
+    private Edge edge;
+}
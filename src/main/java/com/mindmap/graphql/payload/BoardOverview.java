@@ -0,0 +1,21 @@
+package com.mindmap.graphql.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardOverview {
+    private List<NodeCluster> clusters;
+    // Side of the grid cells the clusters were built from, in canvas units
+    private double cellSize;
+    private int totalNodes;
+    // Same meaning as BoardSnapshot.sequence
+    private long sequence;
+}
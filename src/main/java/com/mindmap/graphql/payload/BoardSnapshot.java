@@ -0,0 +1,23 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.model.Board;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardSnapshot {
+    private Board board;
+    private List<Node> nodes;
+    private List<Edge> edges;
+    // Board event sequence the snapshot is at least as new as; resume boardEvents from here
+    private long sequence;
+}
@@ -0,0 +1,16 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.model.Edge;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EdgeConflict {
+    private Edge current;
+    private long expectedVersion;
+}
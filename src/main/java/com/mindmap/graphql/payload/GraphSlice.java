@@ -0,0 +1,25 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphSlice {
+    // In visiting order; for a path, from start to end
+    private List<Node> nodes;
+    // Edges followed to reach the nodes
+    private List<Edge> edges;
+    // The walk hit the node limit before it was done
+    private boolean truncated;
+    // Same meaning as BoardSnapshot.sequence
+    private long sequence;
+}
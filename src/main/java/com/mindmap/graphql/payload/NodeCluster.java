@@ -0,0 +1,25 @@
+package com.mindmap.graphql.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeCluster {
+    // Stable for a given cell at a given zoom level
+    private String id;
+    private int count;
+    // Centroid of the member nodes' centres
+    private double x;
+    private double y;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+    private String label;
+    private String representativeNodeId;
+}
@@ -0,0 +1,16 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeConflict {
+    private Node current;
+    private long expectedVersion;
+}
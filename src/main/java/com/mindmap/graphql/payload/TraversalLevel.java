@@ -0,0 +1,24 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraversalLevel {
+    // Hops from the start node; the start itself is depth 0
+    private int depth;
+    private List<Node> nodes;
+    // Edges from the previous level that reached this one
+    private List<Edge> edges;
+    // Set on the last level when the walk stopped at the node limit
+    private boolean truncated;
+}
@@ -0,0 +1,25 @@
+package com.mindmap.graphql.payload;
+
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewportSlice {
+    // Nodes in the viewport, plus the far ends of edges leaving it
+    private List<Node> nodes;
+    // Edges with at least one end in the viewport
+    private List<Edge> edges;
+    // Nodes on the whole board, so clients can tell whether they have everything
+    private int totalNodes;
+    // Same meaning as BoardSnapshot.sequence
+    private long sequence;
+}
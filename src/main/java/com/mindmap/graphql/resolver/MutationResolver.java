@@ -1,12 +1,18 @@
 package com.mindmap.graphql.resolver;
 
 import com.mindmap.graphql.input.*;
+import com.mindmap.graphql.payload.BoardOpResult;
+import com.mindmap.graphql.payload.EdgeConflict;
+import com.mindmap.graphql.payload.NodeConflict;
 import com.mindmap.graphql.subscription.CursorPosition;
 import com.mindmap.model.*;
+import com.mindmap.service.BoardOperationService;
 import com.mindmap.service.BoardService;
+import com.mindmap.service.CursorAggregator;
 import com.mindmap.service.EdgeService;
 import com.mindmap.service.NodeService;
-import com.mindmap.service.SubscriptionService;
+import com.mindmap.service.VersionConflictException;
+import com.mindmap.service.ViewportService;
 import com.mindmap.security.SecurityUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.graphql.data.method.annotation.Argument;
@@ -14,7 +20,7 @@ import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 
-import java.time.Instant;
+import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
@@ -23,13 +29,15 @@ public class MutationResolver {
     private final BoardService boardService;
     private final NodeService nodeService;
     private final EdgeService edgeService;
-    private final SubscriptionService subscriptionService;
+    private final BoardOperationService boardOperationService;
+    private final CursorAggregator cursorAggregator;
+    private final ViewportService viewportService;
     private final SecurityUtils securityUtils;
 
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
     public Board createBoard(@Argument CreateBoardInput input) {
-        User currentUser = securityUtils.getCurrentUser();
+        UserSummary currentUser = securityUtils.getCurrentUserSummary();
         return boardService.createBoard(input, currentUser);
     }
 
@@ -48,14 +56,21 @@ public class MutationResolver {
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
     public Node createNode(@Argument CreateNodeInput input) {
-        User currentUser = securityUtils.getCurrentUser();
+        UserSummary currentUser = securityUtils.getCurrentUserSummary();
         return nodeService.createNode(input, currentUser);
     }
 
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
-    public Node updateNode(@Argument String id, @Argument UpdateNodeInput input) {
-        return nodeService.updateNode(id, input);
+    public Object updateNode(@Argument String id, @Argument UpdateNodeInput input, @Argument Long expectedVersion) {
+        try {
+            return nodeService.updateNode(id, input, expectedVersion);
+        } catch (VersionConflictException e) {
+            return NodeConflict.builder()
+                    .current((Node) e.getCurrent())
+                    .expectedVersion(expectedVersion)
+                    .build();
+        }
     }
 
     @MutationMapping
@@ -67,14 +82,21 @@ public class MutationResolver {
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
     public Edge createEdge(@Argument CreateEdgeInput input) {
-        User currentUser = securityUtils.getCurrentUser();
+        UserSummary currentUser = securityUtils.getCurrentUserSummary();
         return edgeService.createEdge(input, currentUser);
     }
 
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
-    public Edge updateEdge(@Argument String id, @Argument UpdateEdgeInput input) {
-        return edgeService.updateEdge(id, input);
+    public Object updateEdge(@Argument String id, @Argument UpdateEdgeInput input, @Argument Long expectedVersion) {
+        try {
+            return edgeService.updateEdge(id, input, expectedVersion);
+        } catch (VersionConflictException e) {
+            return EdgeConflict.builder()
+                    .current((Edge) e.getCurrent())
+                    .expectedVersion(expectedVersion)
+                    .build();
+        }
     }
 
     @MutationMapping
@@ -83,6 +105,13 @@ public class MutationResolver {
         return edgeService.deleteEdge(id);
     }
 
+    @MutationMapping
+    @PreAuthorize("isAuthenticated()")
+    public List<BoardOpResult> applyBoardOperations(@Argument String boardId, @Argument List<BoardOp> ops) {
+        UserSummary currentUser = securityUtils.getCurrentUserSummary();
+        return boardOperationService.applyOperations(boardId, ops, currentUser);
+    }
+
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
     public Board shareBoard(@Argument String boardId, @Argument String username, @Argument Permission permission) {
@@ -92,17 +121,28 @@ public class MutationResolver {
     @MutationMapping
     @PreAuthorize("isAuthenticated()")
     public Boolean updateCursor(@Argument String boardId, @Argument Double x, @Argument Double y) {
-        User currentUser = securityUtils.getCurrentUser();
+        UserSummary currentUser = securityUtils.getCurrentUserSummary();
         
         CursorPosition position = CursorPosition.builder()
                 .userId(currentUser.getId())
                 .username(currentUser.getUsername())
                 .x(x)
                 .y(y)
-                .timestamp(Instant.now().toString())
+                .sentAt(System.currentTimeMillis())
                 .build();
         
-        subscriptionService.publishCursorPosition(boardId, position);
+        cursorAggregator.submit(boardId, position);
+        return true;
+    }
+
+    @MutationMapping
+    @PreAuthorize("isAuthenticated()")
+    public Boolean updateViewport(@Argument String boardId, @Argument String viewerId,
+                                  @Argument double minX, @Argument double minY,
+                                  @Argument double maxX, @Argument double maxY,
+                                  @Argument Double margin) {
+        // An explicit null margin means none, like the schema default
+        viewportService.updateViewport(boardId, viewerId, minX, minY, maxX, maxY, margin != null ? margin : 0);
         return true;
     }
 }
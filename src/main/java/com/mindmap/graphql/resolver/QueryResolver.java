@@ -1,20 +1,32 @@
 package com.mindmap.graphql.resolver;
 
+import com.mindmap.graphql.input.TraversalDirection;
+import com.mindmap.graphql.payload.BoardSnapshot;
+import com.mindmap.graphql.payload.BoardOverview;
+import com.mindmap.graphql.payload.GraphSlice;
+import com.mindmap.graphql.payload.ViewportSlice;
 import com.mindmap.model.Board;
 import com.mindmap.model.Edge;
 import com.mindmap.model.Node;
 import com.mindmap.model.User;
+import com.mindmap.model.UserSummary;
 import com.mindmap.service.BoardService;
 import com.mindmap.service.EdgeService;
+import com.mindmap.service.GraphTraversalService;
 import com.mindmap.service.NodeService;
+import com.mindmap.service.ViewportService;
 import com.mindmap.security.SecurityUtils;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
 import lombok.RequiredArgsConstructor;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Controller
 @RequiredArgsConstructor
@@ -23,12 +35,14 @@ public class QueryResolver {
     private final BoardService boardService;
     private final NodeService nodeService;
     private final EdgeService edgeService;
+    private final ViewportService viewportService;
+    private final GraphTraversalService graphTraversalService;
     private final SecurityUtils securityUtils;
 
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
     public List<Board> myBoards() {
-        User currentUser = securityUtils.getCurrentUser();
+        UserSummary currentUser = securityUtils.getCurrentUserSummary();
         return boardService.getUserBoards(currentUser.getId());
     }
 
@@ -50,10 +64,63 @@ public class QueryResolver {
         return edgeService.getEdgesByBoardId(boardId);
     }
 
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public BoardSnapshot boardSnapshot(@Argument String boardId, DataFetchingFieldSelectionSet selectionSet) {
+        return boardService.getSnapshot(boardId,
+                selectionSet.contains("board"),
+                selectedFields(selectionSet, "nodes"),
+                selectedFields(selectionSet, "edges"));
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public ViewportSlice nodesInViewport(@Argument String boardId,
+                                         @Argument double minX, @Argument double minY,
+                                         @Argument double maxX, @Argument double maxY,
+                                         @Argument Double margin) {
+        // An explicit null margin means none, like the schema default
+        return viewportService.nodesInViewport(boardId, minX, minY, maxX, maxY, margin != null ? margin : 0);
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public BoardOverview boardOverview(@Argument String boardId, @Argument double zoom) {
+        return viewportService.boardOverview(boardId, zoom);
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public GraphSlice subtree(@Argument String nodeId, @Argument Integer maxDepth) {
+        return graphTraversalService.subtree(nodeId, maxDepth);
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public GraphSlice neighbors(@Argument String nodeId, @Argument Integer hops) {
+        return graphTraversalService.neighbors(nodeId, hops);
+    }
+
+    @QueryMapping
+    @PreAuthorize("isAuthenticated()")
+    public GraphSlice path(@Argument String fromId, @Argument String toId, @Argument TraversalDirection direction) {
+        return graphTraversalService.path(fromId, toId, direction);
+    }
+
     @QueryMapping
     @PreAuthorize("isAuthenticated()")
     public User me() {
         return securityUtils.getCurrentUser();
     }
-}
 
+    // Top-level fields picked by the client under the given list field, used as a Mongo projection
+    private static Set<String> selectedFields(DataFetchingFieldSelectionSet selectionSet, String field) {
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add("id");
+        selectionSet.getFields(field + "/*").stream()
+                .map(SelectedField::getName)
+                .filter(name -> !name.startsWith("__"))
+                .forEach(fields::add);
+        return fields;
+    }
+}
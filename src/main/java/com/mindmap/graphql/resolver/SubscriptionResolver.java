@@ -1,9 +1,15 @@
 package com.mindmap.graphql.resolver;
 
+import com.mindmap.graphql.input.TraversalDirection;
+import com.mindmap.graphql.payload.TraversalLevel;
+import com.mindmap.graphql.subscription.BoardEvent;
+import com.mindmap.graphql.subscription.BoardOperationsBatch;
 import com.mindmap.graphql.subscription.BoardUpdate;
+import com.mindmap.graphql.subscription.CursorBatch;
 import com.mindmap.graphql.subscription.CursorPosition;
 import com.mindmap.graphql.subscription.EdgeChange;
 import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.service.GraphTraversalService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
@@ -16,6 +22,15 @@ import reactor.core.publisher.Flux;
 public class SubscriptionResolver {
 
     private final com.mindmap.service.SubscriptionService subscriptionService;
+    private final GraphTraversalService graphTraversalService;
+
+    @SubscriptionMapping
+    @PreAuthorize("isAuthenticated()")
+    public Flux<BoardEvent> boardEvents(@Argument String boardId, @Argument Long sinceSequence,
+                                        @Argument Boolean includeCursors, @Argument String viewerId) {
+        return subscriptionService.subscribeToBoardEvents(boardId, sinceSequence,
+                !Boolean.FALSE.equals(includeCursors), viewerId);
+    }
 
     @SubscriptionMapping
     @PreAuthorize("isAuthenticated()")
@@ -25,14 +40,14 @@ public class SubscriptionResolver {
 
     @SubscriptionMapping
     @PreAuthorize("isAuthenticated()")
-    public Flux<NodeChange> nodeChanged(@Argument String boardId) {
-        return subscriptionService.subscribeToNodeChanges(boardId);
+    public Flux<NodeChange> nodeChanged(@Argument String boardId, @Argument String viewerId) {
+        return subscriptionService.subscribeToNodeChanges(boardId, viewerId);
     }
 
     @SubscriptionMapping
     @PreAuthorize("isAuthenticated()")
-    public Flux<EdgeChange> edgeChanged(@Argument String boardId) {
-        return subscriptionService.subscribeToEdgeChanges(boardId);
+    public Flux<EdgeChange> edgeChanged(@Argument String boardId, @Argument String viewerId) {
+        return subscriptionService.subscribeToEdgeChanges(boardId, viewerId);
     }
 
     @SubscriptionMapping
@@ -40,5 +55,23 @@ public class SubscriptionResolver {
     public Flux<CursorPosition> cursorMoved(@Argument String boardId) {
         return subscriptionService.subscribeToCursorMovements(boardId);
     }
-}
 
+    @SubscriptionMapping
+    @PreAuthorize("isAuthenticated()")
+    public Flux<CursorBatch> cursorsMoved(@Argument String boardId) {
+        return subscriptionService.subscribeToCursorBatches(boardId);
+    }
+
+    @SubscriptionMapping
+    @PreAuthorize("isAuthenticated()")
+    public Flux<BoardOperationsBatch> boardOperationsApplied(@Argument String boardId) {
+        return subscriptionService.subscribeToBoardOperations(boardId);
+    }
+
+    @SubscriptionMapping
+    @PreAuthorize("isAuthenticated()")
+    public Flux<TraversalLevel> traverse(@Argument String nodeId, @Argument TraversalDirection direction,
+                                         @Argument Integer maxDepth) {
+        return graphTraversalService.traverse(nodeId, direction, maxDepth);
+    }
+}
@@ -0,0 +1,64 @@
+package com.mindmap.graphql.resolver;
+
+import com.mindmap.model.Board;
+import com.mindmap.model.Collaborator;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import com.mindmap.model.User;
+import com.mindmap.model.UserSummary;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
+import org.dataloader.DataLoader;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+@Controller
+public class UserReferenceResolver {
+
+    // Fields answered straight from the embedded summary
+    private static final Set<String> SUMMARY_FIELDS = Set.of("id", "username", "__typename");
+
+    @SchemaMapping(typeName = "Node", field = "createdBy")
+    public CompletableFuture<User> nodeCreatedBy(Node node, DataLoader<String, User> users,
+                                                 DataFetchingFieldSelectionSet selectionSet) {
+        return load(users, node.getCreatedBy(), selectionSet);
+    }
+
+    @SchemaMapping(typeName = "Edge", field = "createdBy")
+    public CompletableFuture<User> edgeCreatedBy(Edge edge, DataLoader<String, User> users,
+                                                 DataFetchingFieldSelectionSet selectionSet) {
+        return load(users, edge.getCreatedBy(), selectionSet);
+    }
+
+    @SchemaMapping(typeName = "Board", field = "owner")
+    public CompletableFuture<User> boardOwner(Board board, DataLoader<String, User> users,
+                                              DataFetchingFieldSelectionSet selectionSet) {
+        return load(users, board.getOwner(), selectionSet);
+    }
+
+    @SchemaMapping(typeName = "Collaborator", field = "user")
+    public CompletableFuture<User> collaboratorUser(Collaborator collaborator, DataLoader<String, User> users,
+                                                    DataFetchingFieldSelectionSet selectionSet) {
+        return load(users, collaborator.getUser(), selectionSet);
+    }
+
+    private static CompletableFuture<User> load(DataLoader<String, User> users, UserSummary summary,
+                                                DataFetchingFieldSelectionSet selectionSet) {
+        if (summary == null || summary.getId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        boolean summaryOnly = selectionSet.getImmediateFields().stream()
+                .map(SelectedField::getName)
+                .allMatch(SUMMARY_FIELDS::contains);
+        if (summaryOnly) {
+            return CompletableFuture.completedFuture(User.builder()
+                    .id(summary.getId())
+                    .username(summary.getUsername())
+                    .build());
+        }
+        return users.load(summary.getId());
+    }
+}
@@ -0,0 +1,23 @@
+package com.mindmap.graphql.subscription;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardEvent {
+    private String boardId;
+    private long sequence;
+    // NodeChange, EdgeChange, BoardUpdate, CursorBatch or BoardOperationsBatch
+    private Object payload;
+    // Replaced a queued event for the same entity while the subscriber was behind
+    private boolean conflated;
+    // Viewers whose viewport the change touches; null means every subscriber
+    private Set<String> audience;
+}
@@ -0,0 +1,21 @@
+package com.mindmap.graphql.subscription;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardOperationsBatch {
+    private String boardId;
+    @Builder.Default
+    private List<NodeChange> nodeChanges = new ArrayList<>();
+    @Builder.Default
+    private List<EdgeChange> edgeChanges = new ArrayList<>();
+}
@@ -0,0 +1,22 @@
+package com.mindmap.graphql.subscription;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorBatch {
+    private String boardId;
+    @Builder.Default
+    private List<CursorPosition> cursors = new ArrayList<>();
+    // Users whose cursor went idle since the previous tick
+    @Builder.Default
+    private List<String> departed = new ArrayList<>();
+}
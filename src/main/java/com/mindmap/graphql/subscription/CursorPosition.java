@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,6 +16,10 @@ public class CursorPosition {
     private String username;
     private Double x;
     private Double y;
-    private String timestamp;
-}
+    private long sentAt;
 
+    // Formatted only when a GraphQL subscriber actually selects it
+    public String getTimestamp() {
+        return Instant.ofEpochMilli(sentAt).toString();
+    }
+}
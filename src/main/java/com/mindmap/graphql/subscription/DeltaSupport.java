@@ -0,0 +1,27 @@
+package com.mindmap.graphql.subscription;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.beans.PropertyDescriptor;
+
+final class DeltaSupport {
+
+    private DeltaSupport() {
+    }
+
+    // Copies every non-null readable property of source onto the same-named writable property of target
+    static void copyNonNull(Object source, Object target) {
+        BeanWrapper from = PropertyAccessorFactory.forBeanPropertyAccess(source);
+        BeanWrapper to = PropertyAccessorFactory.forBeanPropertyAccess(target);
+        for (PropertyDescriptor property : from.getPropertyDescriptors()) {
+            String name = property.getName();
+            if (from.isReadableProperty(name) && to.isWritableProperty(name)) {
+                Object value = from.getPropertyValue(name);
+                if (value != null) {
+                    to.setPropertyValue(name, value);
+                }
+            }
+        }
+    }
+}
@@ -11,7 +11,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class EdgeChange {
+    // Full entity on CREATED only
     private Edge edge;
+    // Changed fields on UPDATED only
+    private EdgeDelta delta;
     private String edgeId;
     private ChangeType changeType;
 }
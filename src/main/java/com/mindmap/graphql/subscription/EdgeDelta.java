@@ -0,0 +1,51 @@
+package com.mindmap.graphql.subscription;
+
+import com.mindmap.model.Edge;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Only the fields an update touched; null means unchanged
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EdgeDelta {
+    private String id;
+    private Long version;
+    private String label;
+    private String color;
+    private String lineStyle;
+    private Instant updatedAt;
+
+    // changes is keyed by Edge property name, as produced by UpdateEdgeInput.changedFields()
+    public static EdgeDelta of(Edge edge, Map<String, Object> changes) {
+        EdgeDelta delta = EdgeDelta.builder()
+                .id(edge.getId())
+                .version(edge.getVersion())
+                .updatedAt(edge.getUpdatedAt())
+                .build();
+        PropertyAccessorFactory.forBeanPropertyAccess(delta).setPropertyValues(changes);
+        return delta;
+    }
+
+    public EdgeDelta mergedWith(EdgeDelta newer) {
+        EdgeDelta merged = new EdgeDelta();
+        DeltaSupport.copyNonNull(this, merged);
+        DeltaSupport.copyNonNull(newer, merged);
+        return merged;
+    }
+
+    public Edge appliedTo(Edge edge) {
+        Edge copy = new Edge();
+        BeanUtils.copyProperties(edge, copy);
+        DeltaSupport.copyNonNull(this, copy);
+        return copy;
+    }
+}
@@ -11,7 +11,10 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class NodeChange {
+    // Full entity on CREATED only
     private Node node;
+    // Changed fields on UPDATED only
+    private NodeDelta delta;
     private String nodeId;
     private ChangeType changeType;
 }
@@ -0,0 +1,60 @@
+package com.mindmap.graphql.subscription;
+
+import com.mindmap.model.Node;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Only the fields an update touched; null means unchanged
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NodeDelta {
+    private String id;
+    private Long version;
+    private String label;
+    private Double x;
+    private Double y;
+    private String color;
+    private String shape;
+    private Integer size;
+    private Integer width;
+    private Integer height;
+    private Integer fontSize;
+    private Boolean bold;
+    private Boolean italic;
+    private String data;
+    private Instant updatedAt;
+
+    // changes is keyed by Node property name, as produced by UpdateNodeInput.changedFields()
+    public static NodeDelta of(Node node, Map<String, Object> changes) {
+        NodeDelta delta = NodeDelta.builder()
+                .id(node.getId())
+                .version(node.getVersion())
+                .updatedAt(node.getUpdatedAt())
+                .build();
+        PropertyAccessorFactory.forBeanPropertyAccess(delta).setPropertyValues(changes);
+        return delta;
+    }
+
+    public NodeDelta mergedWith(NodeDelta newer) {
+        NodeDelta merged = new NodeDelta();
+        DeltaSupport.copyNonNull(this, merged);
+        DeltaSupport.copyNonNull(newer, merged);
+        return merged;
+    }
+
+    public Node appliedTo(Node node) {
+        Node copy = new Node();
+        BeanUtils.copyProperties(node, copy);
+        DeltaSupport.copyNonNull(this, copy);
+        return copy;
+    }
+}
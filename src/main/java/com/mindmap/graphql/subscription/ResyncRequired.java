@@ -0,0 +1,16 @@
+package com.mindmap.graphql.subscription;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResyncRequired {
+    // The client asked to resume after this sequence but the events are no longer buffered
+    private long sinceSequence;
+    private long currentSequence;
+}
@@ -8,7 +8,6 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -28,8 +27,7 @@ public class Board {
     
     private String description;
     
-    @DBRef
-    private User owner;
+    private UserSummary owner;
     
     @Builder.Default
     private List<Collaborator> collaborators = new ArrayList<>();
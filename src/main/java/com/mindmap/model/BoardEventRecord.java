@@ -0,0 +1,32 @@
+package com.mindmap.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// One board event in the capped collection shared by all instances
+@Document(collection = "board_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BoardEventRecord {
+
+    @Id
+    private String id;
+
+    private String boardId;
+
+    // Instance that published the event; its own events are already applied there
+    private String origin;
+
+    // NodeChange, EdgeChange, BoardUpdate, CursorBatch or BoardOperationsBatch
+    private Object payload;
+
+    private Instant createdAt;
+}
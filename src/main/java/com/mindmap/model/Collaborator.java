@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 
 @Data
 @Builder
@@ -12,8 +11,7 @@ import org.springframework.data.mongodb.core.mapping.DBRef;
 @AllArgsConstructor
 public class Collaborator {
     
-    @DBRef
-    private User user;
+    private UserSummary user;
     
     private Permission permission;
 }
@@ -7,15 +7,19 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.Instant;
 
 @Document(collection = "edges")
+// Cascading deletes look edges up by endpoint within a board
+@CompoundIndex(name = "board_source", def = "{'boardId': 1, 'source': 1}")
+@CompoundIndex(name = "board_target", def = "{'boardId': 1, 'target': 1}")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Edge {
@@ -36,13 +40,16 @@ public class Edge {
     
     private String lineStyle;
     
-    @DBRef
-    private User createdBy;
+    private UserSummary createdBy;
     
     @CreatedDate
     private Instant createdAt;
     
     @LastModifiedDate
     private Instant updatedAt;
+    
+    // Incremented by every update; older documents start without one
+    @Version
+    private Long version;
 }
 
@@ -7,15 +7,15 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.Instant;
 
 @Document(collection = "nodes")
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Node {
@@ -50,13 +50,16 @@ public class Node {
     
     private String data;
     
-    @DBRef
-    private User createdBy;
+    private UserSummary createdBy;
     
     @CreatedDate
     private Instant createdAt;
     
     @LastModifiedDate
     private Instant updatedAt;
+    
+    // Incremented by every update; older documents start without one
+    @Version
+    private Long version;
 }
 
@@ -0,0 +1,13 @@
+package com.mindmap.model;
+
+import lombok.Value;
+
+@Value
+public class UserSummary {
+    String id;
+    String username;
+
+    public static UserSummary of(User user) {
+        return user != null ? new UserSummary(user.getId(), user.getUsername()) : null;
+    }
+}
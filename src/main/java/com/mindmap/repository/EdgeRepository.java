@@ -12,7 +12,5 @@ public interface EdgeRepository extends MongoRepository<Edge, String> {
     List<Edge> findByBoardId(String boardId);
     
     void deleteByBoardId(String boardId);
-    
-    void deleteBySourceOrTarget(String source, String target);
 }
 
@@ -0,0 +1,24 @@
+package com.mindmap.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+
+// Authenticated principal; keeps the user id so requests never have to look it up again
+@Getter
+public class MindMapUserDetails extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+
+    public MindMapUserDetails(String userId, String username, String password, boolean enabled,
+                              Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.userId = userId;
+    }
+}
@@ -1,7 +1,7 @@
 package com.mindmap.security;
 
 import com.mindmap.model.User;
-import com.mindmap.repository.UserRepository;
+import com.mindmap.model.UserSummary;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,7 +11,7 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class SecurityUtils {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -19,8 +19,23 @@ public class SecurityUtils {
             return null;
         }
         
-        String username = authentication.getName();
-        return userRepository.findByUsername(username).orElse(null);
+        if (authentication.getPrincipal() instanceof MindMapUserDetails principal) {
+            return userCache.findById(principal.getUserId()).orElse(null);
+        }
+        return userCache.findByUsername(authentication.getName()).orElse(null);
+    }
+
+    // Id and username straight from the session principal, no lookup needed
+    public UserSummary getCurrentUserSummary() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        
+        if (authentication.getPrincipal() instanceof MindMapUserDetails principal) {
+            return new UserSummary(principal.getUserId(), principal.getUsername());
+        }
+        return UserSummary.of(getCurrentUser());
     }
 
     public String getCurrentUsername() {
@@ -28,4 +43,3 @@ public class SecurityUtils {
         return authentication != null ? authentication.getName() : null;
     }
 }
-
@@ -0,0 +1,66 @@
+package com.mindmap.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindmap.model.User;
+import com.mindmap.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> usersById;
+    private final Cache<String, String> idsByUsername;
+
+    public UserCache(UserRepository userRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${mindmap.user-cache.max-size:10000}") long maxSize,
+                     @Value("${mindmap.user-cache.ttl:5m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+    }
+
+    public Optional<User> findById(String userId) {
+        return Optional.ofNullable(usersById.get(userId, id -> userRepository.findById(id).orElse(null)));
+    }
+
+    public Optional<User> findByUsername(String username) {
+        String userId = idsByUsername.getIfPresent(username);
+        if (userId != null) {
+            Optional<User> cached = findById(userId).filter(user -> username.equals(user.getUsername()));
+            if (cached.isPresent()) {
+                return cached;
+            }
+        }
+
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(this::put);
+        return user;
+    }
+
+    public void invalidate(User user) {
+        usersById.invalidate(user.getId());
+        idsByUsername.asMap().values().removeIf(user.getId()::equals);
+    }
+
+    private void put(User user) {
+        usersById.put(user.getId(), user);
+        idsByUsername.put(user.getUsername(), user.getId());
+    }
+}
@@ -0,0 +1,178 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.BoardEvent;
+import com.mindmap.graphql.subscription.CursorBatch;
+import com.mindmap.graphql.subscription.ResyncRequired;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+// One ordered event stream per board. Events are sequenced and buffered for replay on the
+// publishing thread, then handed to the board's serial fan-out executor, so publishers never wait
+// on subscribers. Every subscriber reads through its own ConflatingBuffer, so the sink always has
+// demand and a slow client only ever falls behind by itself.
+@Slf4j
+class BoardChannel {
+
+    // Sequences are epoch << SEQUENCE_BITS plus a counter. The epoch is drawn at random for each
+    // channel, so a token from before a teardown or from another instance is never mistaken for
+    // one of ours. 21 epoch bits keep sequences within the 53 bits a JavaScript number holds.
+    private static final int SEQUENCE_BITS = 32;
+    private static final int EPOCH_BITS = 21;
+    private static final SecureRandom EPOCHS = new SecureRandom();
+
+    private final String boardId;
+    private final long epoch;
+    private final Sinks.Many<BoardEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final ChannelSettings settings;
+    private final EventRing ring;
+    private final SerialExecutor fanout;
+    private volatile long sequence;
+    // First sequence the fan-out queue had to drop, 0 when nothing is missing
+    private long droppedFrom;
+
+    // Guarded by the owning map entry in SubscriptionService
+    private volatile int subscribers;
+    private long idleGeneration;
+
+    BoardChannel(String boardId, ChannelSettings settings) {
+        this.boardId = boardId;
+        this.settings = settings;
+        this.epoch = 1 + EPOCHS.nextInt((1 << EPOCH_BITS) - 1);
+        this.sequence = epoch << SEQUENCE_BITS;
+        this.ring = new EventRing(settings.replayCapacity(), settings.replayMaxAgeMs());
+        this.fanout = new SerialExecutor(settings.fanoutPool(), settings.fanoutQueueSize(),
+                settings.queueWaitTimer(), settings.deliveryTimer());
+    }
+
+    int queuedFanout() {
+        return fanout.queued();
+    }
+
+    void retain() {
+        subscribers++;
+        idleGeneration++;
+    }
+
+    int release() {
+        return --subscribers;
+    }
+
+    int subscribers() {
+        return subscribers;
+    }
+
+    long markIdle() {
+        return ++idleGeneration;
+    }
+
+    boolean isIdleSince(long generation) {
+        return subscribers == 0 && idleGeneration == generation;
+    }
+
+    long currentSequence() {
+        return sequence;
+    }
+
+    boolean issued(long token) {
+        return token >>> SEQUENCE_BITS == epoch && token <= sequence;
+    }
+
+    // Live events only, or a replay of what was missed after sinceSequence followed by live events.
+    // Events the filter rejects never reach the subscriber's buffer.
+    Flux<BoardEvent> stream(Long sinceSequence, Predicate<BoardEvent> filter) {
+        return Flux.create(emitter -> {
+            Disposable live;
+            ConflatingBuffer buffer;
+            // Holding the emit lock means nothing can slip between the replay and going live
+            synchronized (this) {
+                long head = sequence;
+                boolean resuming = sinceSequence != null && sinceSequence != head;
+                // Only tokens this channel handed out can be replayed; anything else (another epoch,
+                // another instance, a restart) gets a resync
+                List<BoardEvent> missed = resuming && issued(sinceSequence) ? ring.since(sinceSequence, head) : null;
+
+                // Events up to head are replayed or predate this subscriber; the buffer drops
+                // copies of them still on their way through the fan-out queue
+                long delivered = missed != null ? sinceSequence : head;
+                buffer = new ConflatingBuffer(emitter, settings, delivered, delivered);
+                if (missed != null) {
+                    missed.stream().filter(filter).forEach(buffer::offer);
+                } else if (resuming) {
+                    buffer.offer(event(head, ResyncRequired.builder()
+                            .sinceSequence(sinceSequence)
+                            .currentSequence(head)
+                            .build()));
+                }
+                live = sink.asFlux().filter(filter).subscribe(buffer::offer);
+            }
+            emitter.onRequest(requested -> buffer.drain());
+            emitter.onDispose(live);
+        });
+    }
+
+    synchronized void emit(Object payload) {
+        emit(payload, null);
+    }
+
+    synchronized void emit(Object payload, Set<String> audience) {
+        if (payload instanceof CursorBatch) {
+            // Cursor batches are ephemeral: they reuse the latest sequence and are never replayed
+            BoardEvent event = event(sequence, payload);
+            fanout.execute(() -> tryEmit(event));
+            return;
+        }
+        BoardEvent event = event(sequence + 1, payload);
+        event.setAudience(audience);
+        ring.append(event);
+        sequence = event.getSequence();
+
+        long missedFrom = droppedFrom;
+        boolean accepted = fanout.execute(() -> {
+            if (missedFrom > 0) {
+                tryEmit(event(event.getSequence(), ResyncRequired.builder()
+                        .sinceSequence(missedFrom - 1)
+                        .currentSequence(event.getSequence())
+                        .build()));
+            }
+            tryEmit(event);
+        });
+        if (accepted) {
+            droppedFrom = 0;
+        } else if (droppedFrom == 0) {
+            // Subscribers are told to resync with the next event that gets through
+            droppedFrom = event.getSequence();
+            settings.overflowCounter().increment();
+        }
+    }
+
+    // Events were lost before reaching this channel. Sequenced like any change, so clients resuming
+    // from before this point are told to resync as well
+    synchronized void signalResync() {
+        emit(ResyncRequired.builder()
+                .sinceSequence(sequence)
+                .currentSequence(sequence + 1)
+                .build());
+    }
+
+    private void tryEmit(BoardEvent event) {
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("Board {} event {} not delivered: {}", boardId, event.getSequence(), result);
+        }
+    }
+
+    private BoardEvent event(long stamped, Object payload) {
+        return BoardEvent.builder()
+                .boardId(boardId)
+                .sequence(stamped)
+                .payload(payload)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.mindmap.service;
+
+// Carries board events between app instances. SubscriptionService publishes every change here and
+// feeds its own channels only from what the bus hands back, so each board has one event order
+// across all instances.
+public interface BoardEventBus {
+
+    void publish(String boardId, Object payload);
+
+    void subscribe(Listener listener);
+
+    interface Listener {
+
+        // Called in bus order; events for one board are never delivered concurrently. Remote events
+        // were published by another instance, whose changes this one has not applied yet. A
+        // ResyncRequired payload stands for a change that could not be shared: reload the board.
+        void onEvent(String boardId, Object payload, boolean remote);
+
+        // Events may have been lost on the way in, so every board's subscribers must resync
+        void onGap();
+    }
+}
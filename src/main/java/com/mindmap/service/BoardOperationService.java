@@ -0,0 +1,471 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.input.BoardOp;
+import com.mindmap.graphql.input.CreateEdgeInput;
+import com.mindmap.graphql.input.CreateNodeInput;
+import com.mindmap.graphql.payload.BoardOpResult;
+import com.mindmap.graphql.subscription.BoardOperationsBatch;
+import com.mindmap.graphql.subscription.ChangeType;
+import com.mindmap.graphql.subscription.EdgeChange;
+import com.mindmap.graphql.subscription.EdgeDelta;
+import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.graphql.subscription.NodeDelta;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import com.mindmap.model.UserSummary;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BoardOperationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BoardStateCache boardStateCache;
+    private final NodeWriteBehindQueue nodeWriteBehindQueue;
+    private final SubscriptionService subscriptionService;
+    private final BoardWriteExecutor boardWriteExecutor;
+
+    public List<BoardOpResult> applyOperations(String boardId, List<BoardOp> ops, UserSummary currentUser) {
+        // The whole batch is one turn of the board's writer, nothing interleaves with it
+        return boardWriteExecutor.run(boardId, () -> applyAll(boardId, ops, currentUser));
+    }
+
+    private List<BoardOpResult> applyAll(String boardId, List<BoardOp> ops, UserSummary currentUser) {
+        BoardState state = boardStateCache.getBoard(boardId);
+        Batch batch = new Batch(boardId);
+
+        for (int i = 0; i < ops.size(); i++) {
+            BoardOp op = ops.get(i);
+            BoardOpResult result = BoardOpResult.builder()
+                    .index(i)
+                    .type(op.getType())
+                    .id(op.getId())
+                    .ref(op.getRef())
+                    .build();
+            try {
+                apply(op, result, state, batch, currentUser);
+                result.setSuccess(true);
+            } catch (RuntimeException e) {
+                result.setSuccess(false);
+                result.setError(e.getMessage());
+            }
+            batch.results.add(result);
+        }
+
+        execute(batch);
+        publish(batch);
+        return batch.results;
+    }
+
+    private void apply(BoardOp op, BoardOpResult result, BoardState state, Batch batch, UserSummary currentUser) {
+        if (op.getType() == null) {
+            throw new RuntimeException("Operation type is required");
+        }
+        switch (op.getType()) {
+            case CREATE_NODE -> createNode(op, result, batch, currentUser);
+            case UPDATE_NODE -> updateNode(op, result, state, batch);
+            case DELETE_NODE -> deleteNode(op, result, state, batch);
+            case CREATE_EDGE -> createEdge(op, result, state, batch, currentUser);
+            case UPDATE_EDGE -> updateEdge(op, result, state, batch);
+            case DELETE_EDGE -> deleteEdge(op, result, state, batch);
+        }
+    }
+
+    private void createNode(BoardOp op, BoardOpResult result, Batch batch, UserSummary currentUser) {
+        CreateNodeInput input = require(op.getCreateNode(), "createNode");
+        Instant now = Instant.now();
+        Node node = Node.builder()
+                .id(new ObjectId().toHexString())
+                .boardId(batch.boardId)
+                .label(input.getLabel())
+                .x(input.getX())
+                .y(input.getY())
+                .color(input.getColor())
+                .shape(input.getShape())
+                .size(input.getSize())
+                .width(input.getWidth())
+                .height(input.getHeight())
+                .fontSize(input.getFontSize())
+                .bold(input.getBold())
+                .italic(input.getItalic())
+                .data(input.getData())
+                .createdBy(currentUser)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(0L)
+                .build();
+
+        if (op.getRef() != null) {
+            batch.refs.put(op.getRef(), node.getId());
+        }
+        result.setId(node.getId());
+        result.setNode(node);
+
+        // Inserted when the batch is written, so later operations in it can still change or drop it
+        batch.createdNodes.put(node.getId(), result);
+        batch.nodeChanges.add(NodeChange.builder()
+                .node(node)
+                .nodeId(node.getId())
+                .changeType(ChangeType.CREATED)
+                .build());
+    }
+
+    private void updateNode(BoardOp op, BoardOpResult result, BoardState state, Batch batch) {
+        String nodeId = batch.resolve(op.getId());
+        Map<String, Object> changes = require(op.getUpdateNode(), "updateNode").changedFields();
+        Instant now = Instant.now();
+        result.setId(nodeId);
+
+        BoardOpResult created = nodeId != null ? batch.createdNodes.get(nodeId) : null;
+        if (created != null) {
+            // Not written yet: fold the changes into the insert and its CREATED event
+            Node node = created.getNode();
+            if (Versioning.isStale(op.getExpectedVersion(), node.getVersion())) {
+                result.setNode(node);
+                throw new RuntimeException("Version conflict");
+            }
+            PropertyAccessorFactory.forBeanPropertyAccess(node).setPropertyValues(changes);
+            node.setUpdatedAt(now);
+            result.setNode(node);
+            return;
+        }
+
+        Node node = requireNode(state, nodeId);
+        if (Versioning.isStale(op.getExpectedVersion(), node.getVersion())) {
+            // The failed result still carries the node as it is now
+            result.setNode(node);
+            throw new RuntimeException("Version conflict");
+        }
+
+        // Copied, the cached instance may be in use on other threads
+        Node current = node;
+        node = current.toBuilder().build();
+        PropertyAccessorFactory.forBeanPropertyAccess(node).setPropertyValues(changes);
+        node.setUpdatedAt(now);
+        node.setVersion(Versioning.next(current.getVersion()));
+        boardStateCache.putNode(node);
+        result.setNode(node);
+
+        Update update = new Update();
+        changes.forEach(update::set);
+        update.set("updatedAt", now);
+        update.inc("version", 1);
+        batch.nodeOps().updateOne(byId(node.getId()), update);
+        batch.nodeResults.add(result);
+        batch.nodeChanges.add(NodeChange.builder()
+                .delta(NodeDelta.of(node, changes))
+                .nodeId(node.getId())
+                .changeType(ChangeType.UPDATED)
+                .build());
+    }
+
+    private void deleteNode(BoardOp op, BoardOpResult result, BoardState state, Batch batch) {
+        String nodeId = batch.resolve(op.getId());
+        result.setId(nodeId);
+        if (nodeId != null && batch.createdNodes.remove(nodeId) != null) {
+            // Never written, so nothing to delete and nothing to announce
+            batch.nodeChanges.removeIf(change -> nodeId.equals(change.getNodeId()));
+            batch.dropCreatedEdgesOf(nodeId);
+            batch.unwritten(nodeId);
+            return;
+        }
+
+        Node node = requireNode(state, nodeId);
+        batch.dropCreatedEdgesOf(node.getId());
+
+        List<Edge> removedEdges = boardStateCache.removeNode(batch.boardId, node.getId());
+        nodeWriteBehindQueue.discard(node.getId());
+
+        batch.nodeOps().remove(byId(node.getId()));
+        batch.nodeResults.add(result);
+        batch.nodeChanges.add(NodeChange.builder()
+                .nodeId(node.getId())
+                .changeType(ChangeType.DELETED)
+                .build());
+
+        // Cascade to connected edges in the same bulk write
+        if (!removedEdges.isEmpty()) {
+            List<String> edgeIds = removedEdges.stream().map(Edge::getId).toList();
+            batch.edgeOps().remove(Query.query(Criteria.where("_id").in(edgeIds)));
+            batch.edgeResults.add(result);
+            edgeIds.forEach(edgeId -> batch.edgeChanges.add(EdgeChange.builder()
+                    .edgeId(edgeId)
+                    .changeType(ChangeType.DELETED)
+                    .build()));
+        }
+    }
+
+    private void createEdge(BoardOp op, BoardOpResult result, BoardState state, Batch batch, UserSummary currentUser) {
+        CreateEdgeInput input = require(op.getCreateEdge(), "createEdge");
+        String source = batch.resolve(input.getSource());
+        String target = batch.resolve(input.getTarget());
+        // Nodes created earlier in this batch only reach the board state once it is written
+        if (state.getNode(source) == null && !batch.createdNodes.containsKey(source)) {
+            throw new RuntimeException("Source node not found");
+        }
+        if (state.getNode(target) == null && !batch.createdNodes.containsKey(target)) {
+            throw new RuntimeException("Target node not found");
+        }
+        if (state.findEdge(source, target) != null || !batch.createdLinks.add(source + "->" + target)) {
+            throw new RuntimeException("Edge already exists");
+        }
+
+        Instant now = Instant.now();
+        Edge edge = Edge.builder()
+                .id(new ObjectId().toHexString())
+                .boardId(batch.boardId)
+                .source(source)
+                .target(target)
+                .label(input.getLabel())
+                .color(input.getColor())
+                .lineStyle(input.getLineStyle())
+                .createdBy(currentUser)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(0L)
+                .build();
+
+        result.setId(edge.getId());
+        result.setEdge(edge);
+
+        batch.createdEdges.put(edge.getId(), result);
+        batch.edgeChanges.add(EdgeChange.builder()
+                .edge(edge)
+                .edgeId(edge.getId())
+                .changeType(ChangeType.CREATED)
+                .build());
+    }
+
+    private void updateEdge(BoardOp op, BoardOpResult result, BoardState state, Batch batch) {
+        Edge edge = requireEdge(state, op.getId());
+        Map<String, Object> changes = require(op.getUpdateEdge(), "updateEdge").changedFields();
+        Instant now = Instant.now();
+        if (Versioning.isStale(op.getExpectedVersion(), edge.getVersion())) {
+            result.setEdge(edge);
+            throw new RuntimeException("Version conflict");
+        }
+
+        Edge current = edge;
+        edge = current.toBuilder().build();
+        PropertyAccessorFactory.forBeanPropertyAccess(edge).setPropertyValues(changes);
+        edge.setUpdatedAt(now);
+        edge.setVersion(Versioning.next(current.getVersion()));
+        boardStateCache.putEdge(edge);
+        result.setEdge(edge);
+
+        Update update = new Update();
+        changes.forEach(update::set);
+        update.set("updatedAt", now);
+        update.inc("version", 1);
+        batch.edgeOps().updateOne(byId(edge.getId()), update);
+        batch.edgeResults.add(result);
+        batch.edgeChanges.add(EdgeChange.builder()
+                .delta(EdgeDelta.of(edge, changes))
+                .edgeId(edge.getId())
+                .changeType(ChangeType.UPDATED)
+                .build());
+    }
+
+    private void deleteEdge(BoardOp op, BoardOpResult result, BoardState state, Batch batch) {
+        Edge edge = requireEdge(state, op.getId());
+
+        boardStateCache.removeEdge(batch.boardId, edge.getId());
+
+        batch.edgeOps().remove(byId(edge.getId()));
+        batch.edgeResults.add(result);
+        batch.edgeChanges.add(EdgeChange.builder()
+                .edgeId(edge.getId())
+                .changeType(ChangeType.DELETED)
+                .build());
+    }
+
+    private void execute(Batch batch) {
+        // Creations that survived the rest of the batch
+        batch.createdNodes.values().forEach(result -> {
+            batch.nodeOps().insert(result.getNode());
+            batch.nodeResults.add(result);
+        });
+        batch.createdEdges.values().forEach(result -> {
+            batch.edgeOps().insert(result.getEdge());
+            batch.edgeResults.add(result);
+        });
+        if (batch.nodeOps == null && batch.edgeOps == null) {
+            return;
+        }
+
+        // Memory already reflects every operation; whatever goes wrong, let the board reload from Mongo
+        try {
+            if (nodeWriteBehindQueue.isEnabled()) {
+                // Older queued writes must not land on top of this batch; flush also waits out one in flight
+                nodeWriteBehindQueue.flush();
+            }
+
+            boolean failed = execute(batch, batch.nodeOps, batch.nodeResults);
+            failed |= execute(batch, batch.edgeOps, batch.edgeResults);
+
+            if (failed) {
+                boardStateCache.evict(batch.boardId);
+                batch.nodeChanges.removeIf(change -> batch.failedIds.contains(change.getNodeId()));
+                batch.edgeChanges.removeIf(change -> batch.failedIds.contains(change.getEdgeId()));
+                return;
+            }
+        } catch (RuntimeException e) {
+            boardStateCache.evict(batch.boardId);
+            throw e;
+        }
+        batch.createdNodes.values().forEach(result -> boardStateCache.putNode(result.getNode()));
+        batch.createdEdges.values().forEach(result -> boardStateCache.putEdge(result.getEdge()));
+    }
+
+    private boolean execute(Batch batch, BulkOperations operations, List<BoardOpResult> results) {
+        if (operations == null) {
+            return false;
+        }
+        try {
+            operations.execute();
+            return false;
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                BoardOpResult result = results.get(error.getIndex());
+                result.setSuccess(false);
+                result.setError(error.getMessage());
+                result.setNode(null);
+                result.setEdge(null);
+                batch.failedIds.add(result.getId());
+            }
+            log.warn("Bulk board operations on board {} partially failed: {} errors",
+                    batch.boardId, e.getErrors().size());
+            return true;
+        }
+    }
+
+    private void publish(Batch batch) {
+        if (batch.nodeChanges.isEmpty() && batch.edgeChanges.isEmpty()) {
+            return;
+        }
+        subscriptionService.publishBoardOperations(batch.boardId, BoardOperationsBatch.builder()
+                .boardId(batch.boardId)
+                .nodeChanges(batch.nodeChanges)
+                .edgeChanges(batch.edgeChanges)
+                .build());
+    }
+
+    private static Node requireNode(BoardState state, String nodeId) {
+        Node node = nodeId != null ? state.getNode(nodeId) : null;
+        if (node == null) {
+            throw new RuntimeException("Node not found");
+        }
+        return node;
+    }
+
+    private static Edge requireEdge(BoardState state, String edgeId) {
+        Edge edge = edgeId != null ? state.getEdge(edgeId) : null;
+        if (edge == null) {
+            throw new RuntimeException("Edge not found");
+        }
+        return edge;
+    }
+
+    private static <T> T require(T input, String name) {
+        if (input == null) {
+            throw new RuntimeException(name + " input is required");
+        }
+        return input;
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+
+    // Accumulates everything one applyBoardOperations call needs to write and publish
+    private class Batch {
+        private final String boardId;
+        private final List<BoardOpResult> results = new ArrayList<>();
+        private final Map<String, String> refs = new HashMap<>();
+        private final List<NodeChange> nodeChanges = new ArrayList<>();
+        private final List<EdgeChange> edgeChanges = new ArrayList<>();
+        // id -> result of the create operation, which holds the entity to insert
+        private final Map<String, BoardOpResult> createdNodes = new LinkedHashMap<>();
+        private final Map<String, BoardOpResult> createdEdges = new LinkedHashMap<>();
+        // "source->target" of edges created in this batch, to catch duplicates within it
+        private final Set<String> createdLinks = new HashSet<>();
+        private final Set<String> failedIds = new HashSet<>();
+
+        // Bulk write index -> result, so write errors can be reported per operation
+        private final List<BoardOpResult> nodeResults = new ArrayList<>();
+        private final List<BoardOpResult> edgeResults = new ArrayList<>();
+
+        private BulkOperations nodeOps;
+        private BulkOperations edgeOps;
+
+        private Batch(String boardId) {
+            this.boardId = boardId;
+        }
+
+        private BulkOperations nodeOps() {
+            if (nodeOps == null) {
+                nodeOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Node.class);
+            }
+            return nodeOps;
+        }
+
+        private BulkOperations edgeOps() {
+            if (edgeOps == null) {
+                edgeOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Edge.class);
+            }
+            return edgeOps;
+        }
+
+        // Edges created earlier in the batch whose end is being deleted never get written
+        private void dropCreatedEdgesOf(String nodeId) {
+            createdEdges.values().removeIf(created -> {
+                Edge edge = created.getEdge();
+                if (!nodeId.equals(edge.getSource()) && !nodeId.equals(edge.getTarget())) {
+                    return false;
+                }
+                createdLinks.remove(edge.getSource() + "->" + edge.getTarget());
+                edgeChanges.removeIf(change -> edge.getId().equals(change.getEdgeId()));
+                unwritten(edge.getId());
+                return true;
+            });
+        }
+
+        // Results so far that point at an entity the batch will not write no longer hand out its id
+        private void unwritten(String id) {
+            results.stream()
+                    .filter(result -> id.equals(result.getId()))
+                    .forEach(result -> {
+                        result.setId(null);
+                        result.setNode(null);
+                        result.setEdge(null);
+                    });
+        }
+
+        private String resolve(String nodeIdOrRef) {
+            return refs.getOrDefault(nodeIdOrRef, nodeIdOrRef);
+        }
+    }
+}
@@ -2,15 +2,20 @@ package com.mindmap.service;
 
 import com.mindmap.graphql.input.CreateBoardInput;
 import com.mindmap.graphql.input.UpdateBoardInput;
+import com.mindmap.graphql.payload.BoardSnapshot;
 import com.mindmap.model.*;
 import com.mindmap.repository.BoardRepository;
-import com.mindmap.repository.UserRepository;
+import com.mindmap.security.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 @Service
@@ -18,9 +23,12 @@ import java.util.stream.Stream;
 public class BoardService {
 
     private final BoardRepository boardRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final NodeService nodeService;
     private final EdgeService edgeService;
+    private final SubscriptionService subscriptionService;
+    private final BoardWriteExecutor boardWriteExecutor;
+    private final ExecutorService snapshotExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public List<Board> getUserBoards(String userId) {
         List<Board> ownedBoards = boardRepository.findByOwnerId(userId);
@@ -36,7 +44,35 @@ public class BoardService {
                 .orElseThrow(() -> new RuntimeException("Board not found"));
     }
 
-    public Board createBoard(CreateBoardInput input, User owner) {
+    public BoardSnapshot getSnapshot(String boardId, boolean includeBoard,
+                                     Collection<String> nodeFields, Collection<String> edgeFields) {
+        // Read before the data so replaying from it can only repeat changes, never skip them
+        long sequence = subscriptionService.currentSequence(boardId);
+        // Board, nodes and edges are independent reads, run them side by side
+        CompletableFuture<Board> board = includeBoard
+                ? CompletableFuture.supplyAsync(() -> getBoard(boardId), snapshotExecutor)
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<List<Node>> nodes = CompletableFuture.supplyAsync(
+                () -> nodeService.getNodesByBoardId(boardId, nodeFields), snapshotExecutor);
+        CompletableFuture<List<Edge>> edges = CompletableFuture.supplyAsync(
+                () -> edgeService.getEdgesByBoardId(boardId, edgeFields), snapshotExecutor);
+        
+        try {
+            return BoardSnapshot.builder()
+                    .board(board.join())
+                    .nodes(nodes.join())
+                    .edges(edges.join())
+                    .sequence(sequence)
+                    .build();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public Board createBoard(CreateBoardInput input, UserSummary owner) {
         Board board = Board.builder()
                 .title(input.getTitle())
                 .description(input.getDescription())
@@ -48,6 +84,18 @@ public class BoardService {
     }
 
     public Board updateBoard(String id, UpdateBoardInput input) {
+        return boardWriteExecutor.run(id, () -> applyUpdate(id, input));
+    }
+
+    public Boolean deleteBoard(String id) {
+        return boardWriteExecutor.run(id, () -> removeBoard(id));
+    }
+
+    public Board shareBoard(String boardId, String username, Permission permission) {
+        return boardWriteExecutor.run(boardId, () -> addCollaborator(boardId, username, permission));
+    }
+
+    private Board applyUpdate(String id, UpdateBoardInput input) {
         Board board = getBoard(id);
         
         if (input.getTitle() != null) {
@@ -60,11 +108,10 @@ public class BoardService {
         return boardRepository.save(board);
     }
 
-    @Transactional
-    public Boolean deleteBoard(String id) {
+    private Boolean removeBoard(String id) {
         Board board = getBoard(id);
         
-        // Delete all nodes and edges associated with this board
+        // Delete all nodes and edges associated with this board; they run inline on this board's writer
         nodeService.deleteNodesByBoardId(id);
         edgeService.deleteEdgesByBoardId(id);
         
@@ -72,25 +119,25 @@ public class BoardService {
         return true;
     }
 
-    public Board shareBoard(String boardId, String username, Permission permission) {
+    private Board addCollaborator(String boardId, String username, Permission permission) {
         Board board = getBoard(boardId);
-        User user = userRepository.findByUsername(username)
+        User user = userCache.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         // Check if user is already a collaborator
         boolean exists = board.getCollaborators().stream()
-                .anyMatch(c -> c.getUser().getId().equals(user.getId()));
+                .anyMatch(c -> user.getId().equals(c.getUser().getId()));
         
         if (!exists) {
             Collaborator collaborator = Collaborator.builder()
-                    .user(user)
+                    .user(UserSummary.of(user))
                     .permission(permission)
                     .build();
             board.getCollaborators().add(collaborator);
         } else {
             // Update permission if already exists
             board.getCollaborators().stream()
-                    .filter(c -> c.getUser().getId().equals(user.getId()))
+                    .filter(c -> user.getId().equals(c.getUser().getId()))
                     .findFirst()
                     .ifPresent(c -> c.setPermission(permission));
         }
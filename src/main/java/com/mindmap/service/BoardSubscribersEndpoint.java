@@ -0,0 +1,22 @@
+package com.mindmap.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// GET /actuator/boardsubscribers -> boardId to live subscriber count for every open channel
+@Component
+@Endpoint(id = "boardsubscribers")
+@RequiredArgsConstructor
+public class BoardSubscribersEndpoint {
+
+    private final SubscriptionService subscriptionService;
+
+    @ReadOperation
+    public Map<String, Integer> subscribers() {
+        return subscriptionService.subscriberCounts();
+    }
+}
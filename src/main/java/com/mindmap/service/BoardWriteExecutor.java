@@ -0,0 +1,109 @@
+package com.mindmap.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Single writer per board: every mutation of a board runs on that board's mailbox, one at a time
+// and in arrival order, on virtual threads. Different boards run in parallel. Code inside a
+// mutation can read-modify-write cached board state without locks, and events leave in the order
+// the changes were applied. A mailbox only exists while its board has writes queued or running.
+@Component
+public class BoardWriteExecutor {
+
+    private final ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    // Board whose mailbox the current thread is working through, so nested writes run inline
+    private final ThreadLocal<String> currentBoard = new ThreadLocal<>();
+    private final int queueCapacity;
+    private final Timer queueWaitTimer;
+    private final Timer executionTimer;
+
+    public BoardWriteExecutor(MeterRegistry meterRegistry,
+                              @Value("${mindmap.writes.queue-size:1000}") int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        this.queueWaitTimer = Timer.builder("mindmap.writes.queue_wait")
+                .description("Time a mutation waits for its board's earlier writes")
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("mindmap.writes.execution")
+                .description("Time spent applying one mutation on its board's writer")
+                .register(meterRegistry);
+        Gauge.builder("mindmap.writes.boards", mailboxes, Map::size)
+                .description("Boards with mutations queued or running")
+                .register(meterRegistry);
+    }
+
+    public <T> T run(String boardId, Supplier<T> mutation) {
+        if (boardId.equals(currentBoard.get())) {
+            return mutation.get();
+        }
+
+        Mailbox mailbox = mailboxes.compute(boardId, (id, existing) -> {
+            Mailbox target = existing != null ? existing : new Mailbox();
+            target.inFlight++;
+            return target;
+        });
+        CompletableFuture<T> result = new CompletableFuture<>();
+        boolean accepted = mailbox.executor.execute(() -> {
+            currentBoard.set(boardId);
+            try {
+                result.complete(mutation.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                currentBoard.remove();
+                done(boardId, mailbox);
+            }
+        });
+        if (!accepted) {
+            done(boardId, mailbox);
+            throw new RuntimeException("Board is too busy, try again");
+        }
+        return await(result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void done(String boardId, Mailbox mailbox) {
+        mailboxes.computeIfPresent(boardId, (id, current) ->
+                current == mailbox && --current.inFlight == 0 ? null : current);
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            // Surface the mutation's own error, e.g. "Node not found"
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for board write", e);
+        }
+    }
+
+    private final class Mailbox {
+        private final SerialExecutor executor = new SerialExecutor(pool, queueCapacity, queueWaitTimer, executionTimer);
+        // Guarded by the mailboxes map entry
+        private int inFlight;
+    }
+}
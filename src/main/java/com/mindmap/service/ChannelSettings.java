@@ -0,0 +1,18 @@
+package com.mindmap.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Executor;
+
+// Shared by every BoardChannel created by SubscriptionService
+record ChannelSettings(int replayCapacity,
+                       long replayMaxAgeMs,
+                       int subscriberBufferSize,
+                       Counter conflatedCounter,
+                       Counter overflowCounter,
+                       Executor fanoutPool,
+                       int fanoutQueueSize,
+                       Timer queueWaitTimer,
+                       Timer deliveryTimer) {
+}
@@ -0,0 +1,194 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.*;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Per-subscriber queue between a board channel and one client. It never blocks the publisher:
+// while the client is behind, a newer change to the same node, edge or board replaces the
+// queued one, and if the backlog still outgrows the buffer it is swapped for a ResyncRequired.
+class ConflatingBuffer {
+
+    private final FluxSink<BoardEvent> downstream;
+    private final ChannelSettings settings;
+
+    // Insertion order is delivery order; conflated entries keep their original position
+    private final Map<Object, BoardEvent> queued = new LinkedHashMap<>();
+    // Bumped for an entity when an operations batch touching it is queued, so later changes to it
+    // start a new entry behind the batch instead of merging into one ahead of it
+    private final Map<Object, Integer> fences = new HashMap<>();
+    private long uniqueKeys;
+    // Last sequence handed to the client, used as the resume point after an overflow
+    private long delivered;
+    // Highest sequenced event accepted; replay and live delivery can overlap by a few events
+    private long accepted;
+
+    ConflatingBuffer(FluxSink<BoardEvent> downstream, ChannelSettings settings, long delivered, long accepted) {
+        this.downstream = downstream;
+        this.settings = settings;
+        this.delivered = delivered;
+        this.accepted = accepted;
+    }
+
+    void offer(BoardEvent event) {
+        synchronized (this) {
+            Object payload = event.getPayload();
+            if (!(payload instanceof CursorBatch) && !(payload instanceof ResyncRequired)) {
+                if (event.getSequence() <= accepted) {
+                    return;
+                }
+                accepted = event.getSequence();
+            }
+            Object key = slotOf(keyOf(event.getPayload()));
+            if (payload instanceof BoardOperationsBatch batch) {
+                fence(batch);
+            }
+            BoardEvent previous = key != null ? queued.get(key) : null;
+            if (previous != null) {
+                conflate(key, previous, event);
+            } else if (queued.size() >= settings.subscriberBufferSize()) {
+                overflow(event);
+            } else {
+                queued.put(key != null ? key : ++uniqueKeys, event);
+            }
+        }
+        drain();
+    }
+
+    synchronized void drain() {
+        Iterator<BoardEvent> events = queued.values().iterator();
+        while (events.hasNext() && downstream.requestedFromDownstream() > 0 && !downstream.isCancelled()) {
+            BoardEvent event = events.next();
+            events.remove();
+            if (!event.isConflated()) {
+                delivered = event.getSequence();
+            }
+            downstream.next(event);
+        }
+        if (queued.isEmpty()) {
+            // Nothing left for a later change to be merged into
+            fences.clear();
+        }
+    }
+
+    private Object slotOf(Object key) {
+        Integer fence = key != null ? fences.get(key) : null;
+        return fence != null ? key + "#" + fence : key;
+    }
+
+    private void fence(BoardOperationsBatch batch) {
+        batch.getNodeChanges().forEach(change -> fences.merge("node:" + change.getNodeId(), 1, Integer::sum));
+        batch.getEdgeChanges().forEach(change -> fences.merge("edge:" + change.getEdgeId(), 1, Integer::sum));
+    }
+
+    private void conflate(Object key, BoardEvent previous, BoardEvent event) {
+        Object merged = merge(previous.getPayload(), event.getPayload());
+        BoardEvent replacement = BoardEvent.builder()
+                .boardId(event.getBoardId())
+                .sequence(event.getSequence())
+                .payload(merged)
+                .conflated(true)
+                .build();
+        if (isDeletion(merged)) {
+            // A delete must come after anything queued that still refers to the entity
+            queued.remove(key);
+        }
+        queued.put(key, replacement);
+        settings.conflatedCounter().increment();
+    }
+
+    private void overflow(BoardEvent event) {
+        queued.clear();
+        fences.clear();
+        queued.put(++uniqueKeys, BoardEvent.builder()
+                .boardId(event.getBoardId())
+                .sequence(event.getSequence())
+                .payload(ResyncRequired.builder()
+                        .sinceSequence(delivered)
+                        .currentSequence(event.getSequence())
+                        .build())
+                .build());
+        settings.overflowCounter().increment();
+    }
+
+    private static Object keyOf(Object payload) {
+        if (payload instanceof NodeChange change) {
+            return "node:" + change.getNodeId();
+        }
+        if (payload instanceof EdgeChange change) {
+            return "edge:" + change.getEdgeId();
+        }
+        if (payload instanceof BoardUpdate) {
+            return "board";
+        }
+        if (payload instanceof CursorBatch) {
+            return "cursors";
+        }
+        // Operation batches and resync signals are never merged
+        return null;
+    }
+
+    private static Object merge(Object previous, Object next) {
+        if (previous instanceof NodeChange older && next instanceof NodeChange newer) {
+            if (newer.getChangeType() != ChangeType.UPDATED) {
+                return newer;
+            }
+            // A node the client has not seen yet stays a creation, carrying the latest state
+            if (older.getChangeType() == ChangeType.CREATED) {
+                return NodeChange.builder().node(newer.getDelta().appliedTo(older.getNode()))
+                        .nodeId(newer.getNodeId()).changeType(ChangeType.CREATED).build();
+            }
+            if (older.getChangeType() == ChangeType.UPDATED) {
+                return NodeChange.builder().delta(older.getDelta().mergedWith(newer.getDelta()))
+                        .nodeId(newer.getNodeId()).changeType(ChangeType.UPDATED).build();
+            }
+            return newer;
+        }
+        if (previous instanceof EdgeChange older && next instanceof EdgeChange newer) {
+            if (newer.getChangeType() != ChangeType.UPDATED) {
+                return newer;
+            }
+            if (older.getChangeType() == ChangeType.CREATED) {
+                return EdgeChange.builder().edge(newer.getDelta().appliedTo(older.getEdge()))
+                        .edgeId(newer.getEdgeId()).changeType(ChangeType.CREATED).build();
+            }
+            if (older.getChangeType() == ChangeType.UPDATED) {
+                return EdgeChange.builder().delta(older.getDelta().mergedWith(newer.getDelta()))
+                        .edgeId(newer.getEdgeId()).changeType(ChangeType.UPDATED).build();
+            }
+            return newer;
+        }
+        if (previous instanceof CursorBatch older && next instanceof CursorBatch newer) {
+            Map<String, CursorPosition> cursors = new LinkedHashMap<>();
+            Set<String> departed = new LinkedHashSet<>(older.getDeparted());
+            older.getCursors().forEach(cursor -> cursors.put(cursor.getUserId(), cursor));
+            newer.getCursors().forEach(cursor -> {
+                cursors.put(cursor.getUserId(), cursor);
+                departed.remove(cursor.getUserId());
+            });
+            newer.getDeparted().forEach(userId -> {
+                cursors.remove(userId);
+                departed.add(userId);
+            });
+            return CursorBatch.builder()
+                    .boardId(newer.getBoardId())
+                    .cursors(new ArrayList<>(cursors.values()))
+                    .departed(new ArrayList<>(departed))
+                    .build();
+        }
+        return next;
+    }
+
+    private static boolean isDeletion(Object payload) {
+        return (payload instanceof NodeChange node && node.getChangeType() == ChangeType.DELETED)
+                || (payload instanceof EdgeChange edge && edge.getChangeType() == ChangeType.DELETED)
+                || (payload instanceof BoardUpdate update && update.getUpdateType() == UpdateType.DELETED);
+    }
+}
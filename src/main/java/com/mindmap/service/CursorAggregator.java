@@ -0,0 +1,135 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.CursorBatch;
+import com.mindmap.graphql.subscription.CursorPosition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the latest cursor per user and broadcasts one batch per board per tick,
+// so subscribers see a fixed message rate regardless of how many people are moving.
+@Component
+@Slf4j
+public class CursorAggregator {
+
+    private final SubscriptionService subscriptionService;
+    private final long idleTimeoutMs;
+    private final Map<String, BoardCursors> boards = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter samplesCounter;
+    private final Counter batchesCounter;
+
+    public CursorAggregator(SubscriptionService subscriptionService,
+                            MeterRegistry meterRegistry,
+                            @Value("${mindmap.cursors.tick-rate:20}") int tickRate,
+                            @Value("${mindmap.cursors.idle-timeout:10s}") Duration idleTimeout) {
+        this.subscriptionService = subscriptionService;
+        this.idleTimeoutMs = idleTimeout.toMillis();
+        this.samplesCounter = Counter.builder("mindmap.cursors.samples")
+                .description("Cursor samples received from clients")
+                .register(meterRegistry);
+        this.batchesCounter = Counter.builder("mindmap.cursors.batches")
+                .description("Conflated cursor batches broadcast to boards")
+                .register(meterRegistry);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cursor-tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMicros = TimeUnit.SECONDS.toMicros(1) / Math.max(1, tickRate);
+        scheduler.scheduleAtFixedRate(this::tickQuietly, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+        log.info("Cursor broadcasts at {} Hz, idle after {}ms", tickRate, idleTimeoutMs);
+    }
+
+    public void submit(String boardId, CursorPosition position) {
+        boards.compute(boardId, (id, cursors) -> {
+            BoardCursors target = cursors != null ? cursors : new BoardCursors();
+            target.offer(position);
+            return target;
+        });
+        samplesCounter.increment();
+    }
+
+    void tick() {
+        long idleBefore = System.currentTimeMillis() - idleTimeoutMs;
+        boards.forEach((boardId, cursors) -> {
+            CursorBatch batch = cursors.drain(boardId, idleBefore);
+            if (batch != null) {
+                subscriptionService.publishCursorBatch(boardId, batch);
+                batchesCounter.increment();
+            }
+        });
+        // Forget boards where everyone has gone idle
+        for (String boardId : List.copyOf(boards.keySet())) {
+            boards.computeIfPresent(boardId, (id, cursors) -> cursors.isEmpty() ? null : cursors);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            log.warn("Cursor tick failed: {}", e.getMessage());
+        }
+    }
+
+    private static final class BoardCursors {
+        // userId -> latest unsent position; later samples replace earlier ones
+        private final Map<String, CursorPosition> pending = new ConcurrentHashMap<>();
+        // userId -> time of the last sample
+        private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+
+        void offer(CursorPosition position) {
+            pending.put(position.getUserId(), position);
+            lastSeen.put(position.getUserId(), position.getSentAt());
+        }
+
+        CursorBatch drain(String boardId, long idleBefore) {
+            List<CursorPosition> cursors = new ArrayList<>();
+            for (String userId : List.copyOf(pending.keySet())) {
+                CursorPosition position = pending.remove(userId);
+                if (position != null) {
+                    cursors.add(position);
+                }
+            }
+
+            List<String> departed = new ArrayList<>();
+            lastSeen.forEach((userId, seenAt) -> {
+                if (seenAt < idleBefore && lastSeen.remove(userId, seenAt)) {
+                    departed.add(userId);
+                }
+            });
+
+            if (cursors.isEmpty() && departed.isEmpty()) {
+                return null;
+            }
+            return CursorBatch.builder()
+                    .boardId(boardId)
+                    .cursors(cursors)
+                    .departed(departed)
+                    .build();
+        }
+
+        boolean isEmpty() {
+            return lastSeen.isEmpty() && pending.isEmpty();
+        }
+    }
+}
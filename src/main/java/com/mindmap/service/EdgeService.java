@@ -1,39 +1,114 @@
 package com.mindmap.service;
 
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
 import com.mindmap.graphql.input.CreateEdgeInput;
 import com.mindmap.graphql.input.UpdateEdgeInput;
 import com.mindmap.graphql.subscription.ChangeType;
 import com.mindmap.graphql.subscription.EdgeChange;
+import com.mindmap.graphql.subscription.EdgeDelta;
 import com.mindmap.model.Edge;
-import com.mindmap.model.User;
+import com.mindmap.model.UserSummary;
 import com.mindmap.repository.EdgeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class EdgeService {
 
     private final EdgeRepository edgeRepository;
+    private final MongoTemplate mongoTemplate;
     private final SubscriptionService subscriptionService;
+    private final BoardStateCache boardStateCache;
+    private final BoardWriteExecutor boardWriteExecutor;
     
-    public EdgeService(EdgeRepository edgeRepository, SubscriptionService subscriptionService) {
+    public EdgeService(EdgeRepository edgeRepository, MongoTemplate mongoTemplate,
+                       SubscriptionService subscriptionService, BoardStateCache boardStateCache,
+                       BoardWriteExecutor boardWriteExecutor) {
         this.edgeRepository = edgeRepository;
+        this.mongoTemplate = mongoTemplate;
         this.subscriptionService = subscriptionService;
+        this.boardStateCache = boardStateCache;
+        this.boardWriteExecutor = boardWriteExecutor;
     }
 
     public List<Edge> getEdgesByBoardId(String boardId) {
-        return edgeRepository.findByBoardId(boardId);
+        return boardStateCache.getBoard(boardId).edgeList();
+    }
+
+    public List<Edge> getEdgesByBoardId(String boardId, Collection<String> fields) {
+        Optional<BoardState> resident = boardStateCache.getBoardIfPresent(boardId);
+        if (resident.isPresent()) {
+            return resident.get().edgeList();
+        }
+        
+        // Only read the requested fields; partial edges are never put in the cache
+        Query query = Query.query(Criteria.where("boardId").is(boardId));
+        fields.forEach(query.fields()::include);
+        return mongoTemplate.find(query, Edge.class);
     }
 
     public Edge getEdge(String id) {
-        return edgeRepository.findById(id)
+        return boardStateCache.findEdge(id)
                 .orElseThrow(() -> new RuntimeException("Edge not found"));
     }
 
-    public Edge createEdge(CreateEdgeInput input, User createdBy) {
+    public Edge createEdge(CreateEdgeInput input, UserSummary createdBy) {
+        return boardWriteExecutor.run(input.getBoardId(), () -> insertEdge(input, createdBy));
+    }
+
+    public Edge updateEdge(String id, UpdateEdgeInput input) {
+        return updateEdge(id, input, null);
+    }
+
+    // With an expectedVersion the update only applies if the edge is still at that version,
+    // otherwise a VersionConflictException carries the current edge
+    public Edge updateEdge(String id, UpdateEdgeInput input, Long expectedVersion) {
+        return boardWriteExecutor.run(getEdge(id).getBoardId(), () -> applyUpdate(id, input, expectedVersion));
+    }
+
+    public Boolean deleteEdge(String id) {
+        return boardWriteExecutor.run(getEdge(id).getBoardId(), () -> removeEdge(id));
+    }
+
+    // Inline when already on the board's writer, as from BoardService.deleteBoard
+    public void deleteEdgesByBoardId(String boardId) {
+        boardWriteExecutor.run(boardId, () -> {
+            boardStateCache.evict(boardId);
+            edgeRepository.deleteByBoardId(boardId);
+            return null;
+        });
+    }
+
+    // Served by the (boardId, source) and (boardId, target) indexes
+    public void deleteEdgesByNode(String boardId, String nodeId) {
+        Query query = Query.query(Criteria.where("boardId").is(boardId)
+                .orOperator(Criteria.where("source").is(nodeId), Criteria.where("target").is(nodeId)));
+        boardWriteExecutor.run(boardId, () -> mongoTemplate.remove(query, Edge.class));
+    }
+
+    // The methods below run on the board's writer, so the cached edge cannot change underneath them
+
+    private Edge insertEdge(CreateEdgeInput input, UserSummary createdBy) {
+        BoardState state = boardStateCache.getBoard(input.getBoardId());
+        if (state.getNode(input.getSource()) == null) {
+            throw new RuntimeException("Source node not found");
+        }
+        if (state.getNode(input.getTarget()) == null) {
+            throw new RuntimeException("Target node not found");
+        }
+        if (state.findEdge(input.getSource(), input.getTarget()) != null) {
+            throw new RuntimeException("Edge already exists");
+        }
+        
         Edge edge = Edge.builder()
                 .boardId(input.getBoardId())
                 .source(input.getSource())
@@ -45,6 +120,7 @@ public class EdgeService {
                 .build();
         
         edge = edgeRepository.save(edge);
+        boardStateCache.putEdge(edge);
         
         // Publish edge creation event
         EdgeChange change = EdgeChange.builder()
@@ -57,24 +133,15 @@ public class EdgeService {
         return edge;
     }
 
-    public Edge updateEdge(String id, UpdateEdgeInput input) {
+    private Edge applyUpdate(String id, UpdateEdgeInput input, Long expectedVersion) {
         Edge edge = getEdge(id);
+        Map<String, Object> changes = input.changedFields();
         
-        if (input.getLabel() != null) {
-            edge.setLabel(input.getLabel());
-        }
-        if (input.getColor() != null) {
-            edge.setColor(input.getColor());
-        }
-        if (input.getLineStyle() != null) {
-            edge.setLineStyle(input.getLineStyle());
-        }
-        
-        edge = edgeRepository.save(edge);
+        edge = applyAtomically(edge, changes, expectedVersion);
         
-        // Publish edge update event
+        // Publish only what changed
         EdgeChange change = EdgeChange.builder()
-                .edge(edge)
+                .delta(EdgeDelta.of(edge, changes))
                 .edgeId(edge.getId())
                 .changeType(ChangeType.UPDATED)
                 .build();
@@ -83,11 +150,12 @@ public class EdgeService {
         return edge;
     }
 
-    public Boolean deleteEdge(String id) {
+    private Boolean removeEdge(String id) {
         Edge edge = getEdge(id);
         String boardId = edge.getBoardId();
         
-        edgeRepository.delete(edge);
+        boardStateCache.removeEdge(boardId, id);
+        edgeRepository.deleteById(id);
         
         // Publish edge deletion event
         EdgeChange change = EdgeChange.builder()
@@ -100,14 +168,10 @@ public class EdgeService {
         return true;
     }
 
-    @Transactional
-    public void deleteEdgesByBoardId(String boardId) {
-        edgeRepository.deleteByBoardId(boardId);
-    }
-
-    @Transactional
-    public void deleteEdgesByNode(String nodeId) {
-        edgeRepository.deleteBySourceOrTarget(nodeId, nodeId);
+    private Edge applyAtomically(Edge cached, Map<String, Object> changes, Long expectedVersion) {
+        return Versioning.applyAtomically(mongoTemplate, Edge.class, cached.getId(), changes, expectedVersion,
+                boardStateCache::putEdge,
+                () -> boardStateCache.removeEdge(cached.getBoardId(), cached.getId()),
+                () -> boardStateCache.evict(cached.getBoardId()));
     }
 }
-
@@ -0,0 +1,48 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.BoardEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Fixed-size buffer of a board's most recent events, indexed by sequence.
+// A single writer (the channel, under its lock) appends; readers never lock and
+// detect overwritten slots by checking the sequence they find there.
+class EventRing {
+
+    private record Slot(BoardEvent event, long emittedAt) {
+    }
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final long maxAgeMs;
+
+    EventRing(int capacity, long maxAgeMs) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    void append(BoardEvent event) {
+        slots.set((int) (event.getSequence() & mask), new Slot(event, System.currentTimeMillis()));
+    }
+
+    // Events after sinceSequence up to and including headSequence, or null if any of them is gone
+    List<BoardEvent> since(long sinceSequence, long headSequence) {
+        if (headSequence - sinceSequence > slots.length()) {
+            return null;
+        }
+        long oldestAllowed = System.currentTimeMillis() - maxAgeMs;
+        List<BoardEvent> events = new ArrayList<>((int) Math.max(0, headSequence - sinceSequence));
+        for (long sequence = sinceSequence + 1; sequence <= headSequence; sequence++) {
+            Slot slot = slots.get((int) (sequence & mask));
+            if (slot == null || slot.event().getSequence() != sequence || slot.emittedAt() < oldestAllowed) {
+                return null;
+            }
+            events.add(slot.event());
+        }
+        return events;
+    }
+}
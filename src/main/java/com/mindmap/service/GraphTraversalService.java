@@ -0,0 +1,264 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.input.TraversalDirection;
+import com.mindmap.graphql.payload.GraphSlice;
+import com.mindmap.graphql.payload.TraversalLevel;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Breadth-first walks over a board's cached adjacency, so a branch can be expanded without
+// loading the whole board. Every walk is bounded by depth and by a node limit.
+@Service
+public class GraphTraversalService {
+
+    private final BoardStateCache boardStateCache;
+    private final SubscriptionService subscriptionService;
+    private final int maxNodes;
+    private final int maxDepth;
+
+    public GraphTraversalService(BoardStateCache boardStateCache,
+                                 SubscriptionService subscriptionService,
+                                 @Value("${mindmap.traversal.max-nodes:10000}") int maxNodes,
+                                 @Value("${mindmap.traversal.max-depth:64}") int maxDepth) {
+        this.boardStateCache = boardStateCache;
+        this.subscriptionService = subscriptionService;
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+    }
+
+    // The node and everything below it, following edges from source to target
+    public GraphSlice subtree(String nodeId, Integer depth) {
+        return collect(nodeId, TraversalDirection.OUTGOING, depth);
+    }
+
+    // Everything within the given number of hops, whichever way the edges point
+    public GraphSlice neighbors(String nodeId, Integer hops) {
+        return collect(nodeId, TraversalDirection.BOTH, hops);
+    }
+
+    // Same walk handed out one level at a time, so the client can draw the first hops while the
+    // rest are still coming
+    public Flux<TraversalLevel> traverse(String nodeId, TraversalDirection direction, Integer depth) {
+        return Flux.<TraversalLevel, Walk>generate(
+                        () -> new Walk(boardOf(nodeId), nodeId, direction, depthLimit(depth)),
+                        (walk, sink) -> {
+                            TraversalLevel level = walk.next();
+                            if (level != null) {
+                                sink.next(level);
+                            } else {
+                                sink.complete();
+                            }
+                            return walk;
+                        })
+                // The first level may have to load the board from Mongo
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // A shortest path, counted in edges; empty when the nodes are not connected within the limits
+    public GraphSlice path(String fromId, String toId, TraversalDirection direction) {
+        BoardState state = boardOf(fromId);
+        long sequence = subscriptionService.currentSequence(state.getBoardId());
+        if (state.getNode(toId) == null) {
+            throw new RuntimeException("Node not found");
+        }
+
+        // Node -> edge it was first reached through
+        Map<String, Edge> reachedBy = new HashMap<>();
+        Set<String> visited = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        visited.add(fromId);
+        queue.add(fromId);
+        boolean truncated = false;
+        while (!queue.isEmpty() && !visited.contains(toId)) {
+            String current = queue.poll();
+            for (Edge edge : edgesFrom(state, current, direction)) {
+                String next = farEnd(edge, current);
+                // Edges left dangling by a half-applied delete lead nowhere, as in Walk
+                if (visited.contains(next) || state.getNode(next) == null) {
+                    continue;
+                }
+                if (visited.size() >= maxNodes) {
+                    truncated = true;
+                    queue.clear();
+                    break;
+                }
+                visited.add(next);
+                reachedBy.put(next, edge);
+                queue.add(next);
+            }
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        if (visited.contains(toId)) {
+            // Walk back from the end, then flip
+            String current = toId;
+            nodes.add(state.getNode(current));
+            while (!current.equals(fromId)) {
+                Edge edge = reachedBy.get(current);
+                edges.add(edge);
+                current = farEnd(edge, current);
+                nodes.add(state.getNode(current));
+            }
+            Collections.reverse(nodes);
+            Collections.reverse(edges);
+        }
+
+        return GraphSlice.builder()
+                .nodes(nodes)
+                .edges(edges)
+                .truncated(truncated)
+                .sequence(sequence)
+                .build();
+    }
+
+    private GraphSlice collect(String nodeId, TraversalDirection direction, Integer depth) {
+        BoardState state = boardOf(nodeId);
+        // Read before the data, as for snapshots
+        long sequence = subscriptionService.currentSequence(state.getBoardId());
+
+        Walk walk = new Walk(state, nodeId, direction, depthLimit(depth));
+        List<Node> nodes = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        boolean truncated = false;
+        for (TraversalLevel level = walk.next(); level != null; level = walk.next()) {
+            nodes.addAll(level.getNodes());
+            edges.addAll(level.getEdges());
+            truncated |= level.isTruncated();
+        }
+
+        return GraphSlice.builder()
+                .nodes(nodes)
+                .edges(edges)
+                .truncated(truncated)
+                .sequence(sequence)
+                .build();
+    }
+
+    private BoardState boardOf(String nodeId) {
+        Node node = boardStateCache.findNode(nodeId)
+                .orElseThrow(() -> new RuntimeException("Node not found"));
+        return boardStateCache.getBoard(node.getBoardId());
+    }
+
+    private int depthLimit(Integer depth) {
+        if (depth != null && depth < 0) {
+            throw new RuntimeException("Depth must not be negative");
+        }
+        return depth == null ? maxDepth : Math.min(depth, maxDepth);
+    }
+
+    private static List<Edge> edgesFrom(BoardState state, String nodeId, TraversalDirection direction) {
+        return switch (direction) {
+            case OUTGOING -> state.outgoingEdges(nodeId);
+            case INCOMING -> state.incomingEdges(nodeId);
+            case BOTH -> state.edgesOf(nodeId);
+        };
+    }
+
+    private static String farEnd(Edge edge, String nodeId) {
+        return nodeId.equals(edge.getSource()) ? edge.getTarget() : edge.getSource();
+    }
+
+    // One breadth-first walk, advanced a level per call
+    private final class Walk {
+        private final BoardState state;
+        private final TraversalDirection direction;
+        private final int depthLimit;
+        private final Set<String> visited = new HashSet<>();
+        private final Set<String> followed = new HashSet<>();
+        private final String startId;
+        private List<String> frontier = List.of();
+        private int depth;
+        private boolean done;
+
+        Walk(BoardState state, String startId, TraversalDirection direction, int depthLimit) {
+            this.state = state;
+            this.startId = startId;
+            this.direction = direction != null ? direction : TraversalDirection.OUTGOING;
+            this.depthLimit = depthLimit;
+        }
+
+        TraversalLevel next() {
+            if (done) {
+                return null;
+            }
+            if (frontier.isEmpty() && visited.isEmpty()) {
+                return start();
+            }
+
+            depth++;
+            List<Node> nodes = new ArrayList<>();
+            List<Edge> edges = new ArrayList<>();
+            List<String> reached = new ArrayList<>();
+            boolean truncated = false;
+            for (String nodeId : frontier) {
+                for (Edge edge : edgesFrom(state, nodeId, direction)) {
+                    if (!followed.add(edge.getId())) {
+                        continue;
+                    }
+                    String next = farEnd(edge, nodeId);
+                    if (!visited.contains(next)) {
+                        Node node = state.getNode(next);
+                        if (node == null) {
+                            continue;
+                        }
+                        if (visited.size() >= maxNodes) {
+                            truncated = true;
+                            continue;
+                        }
+                        visited.add(next);
+                        reached.add(next);
+                        nodes.add(node);
+                    }
+                    // Links back to nodes already reached are kept too, both ends are on the client
+                    edges.add(edge);
+                }
+            }
+
+            frontier = reached;
+            done = truncated || reached.isEmpty() || depth >= depthLimit;
+            if (nodes.isEmpty() && edges.isEmpty() && !truncated) {
+                return null;
+            }
+            return TraversalLevel.builder()
+                    .depth(depth)
+                    .nodes(nodes)
+                    .edges(edges)
+                    .truncated(truncated)
+                    .build();
+        }
+
+        private TraversalLevel start() {
+            Node start = state.getNode(startId);
+            if (start == null) {
+                throw new RuntimeException("Node not found");
+            }
+            visited.add(startId);
+            frontier = List.of(startId);
+            done = depthLimit == 0;
+            return TraversalLevel.builder()
+                    .depth(0)
+                    .nodes(List.of(start))
+                    .edges(List.of())
+                    .truncated(false)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.mindmap.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Single instance: events go straight back to the publishing thread's listeners
+@Component
+@ConditionalOnProperty(name = "mindmap.events.bus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryBoardEventBus implements BoardEventBus {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String boardId, Object payload) {
+        listeners.forEach(listener -> listener.onEvent(boardId, payload, false));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,245 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.ResyncRequired;
+import com.mindmap.model.BoardEventRecord;
+import com.mongodb.CursorType;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Several instances behind a load balancer: every event is appended to a capped collection and each
+// instance, the publishing one included, tails it on a single thread. The collection's insertion
+// order is the per-board order everywhere. A capped-collection tail works on a standalone mongod,
+// unlike change streams which need a replica set.
+@Component
+@ConditionalOnProperty(name = "mindmap.events.bus", havingValue = "mongo")
+@Slf4j
+public class MongoBoardEventBus implements BoardEventBus {
+
+    private static final String COLLECTION = "board_events";
+    // Publisher clocks can disagree this much; reopened tails look back this far and drop repeats
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(5);
+    private static final int RECENT_IDS = 10_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration retryDelay;
+    // Tells this instance's events apart from those it has to apply to its own memory
+    private final String instanceId = new ObjectId().toHexString();
+    // Boards whose change failed to be appended; other instances still have to be told to resync
+    private final Set<String> unshared = ConcurrentHashMap.newKeySet();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread tailThread;
+    private volatile boolean running = true;
+
+    // Owned by the tail thread
+    private final Map<String, Boolean> recentIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_IDS;
+        }
+    };
+    private Instant resumeFrom = Instant.now();
+    private boolean sawEvents;
+
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter duplicateCounter;
+    private final Counter gapCounter;
+    private final Counter unsharedCounter;
+
+    public MongoBoardEventBus(MongoTemplate mongoTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${mindmap.events.bus-capped-size-mb:64}") long cappedSizeMb,
+                              @Value("${mindmap.events.bus-retry-delay:200ms}") Duration retryDelay) {
+        this.mongoTemplate = mongoTemplate;
+        this.retryDelay = retryDelay;
+        this.publishedCounter = Counter.builder("mindmap.event_bus.published")
+                .description("Board events appended to the shared collection")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("mindmap.event_bus.received")
+                .description("Board events read back from the shared collection")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("mindmap.event_bus.duplicates")
+                .description("Events seen again after the tail was reopened and dropped")
+                .register(meterRegistry);
+        this.gapCounter = Counter.builder("mindmap.event_bus.gaps")
+                .description("Times the collection wrapped past events this instance had not read")
+                .register(meterRegistry);
+        this.unsharedCounter = Counter.builder("mindmap.event_bus.unshared")
+                .description("Board events that could not be appended and made their board resync")
+                .register(meterRegistry);
+
+        ensureCappedCollection(cappedSizeMb * 1024 * 1024);
+        this.tailThread = new Thread(this::tail, "board-event-tail");
+        tailThread.setDaemon(true);
+        tailThread.start();
+        log.info("Board events shared through capped collection {} ({} MB)", COLLECTION, cappedSizeMb);
+    }
+
+    @Override
+    public void publish(String boardId, Object payload) {
+        shareResyncs();
+        try {
+            append(boardId, payload);
+            publishedCounter.increment();
+        } catch (RuntimeException e) {
+            // The change itself is stored, but nobody will hear of it: subscribers here resync now,
+            // and the other instances as soon as the collection takes writes again
+            log.warn("Board {} event not shared, resyncing its subscribers: {}", boardId, e.getMessage());
+            unsharedCounter.increment();
+            unshared.add(boardId);
+            for (Listener listener : listeners) {
+                try {
+                    listener.onEvent(boardId, ResyncRequired.builder().build(), false);
+                } catch (RuntimeException resyncFailure) {
+                    log.warn("Board {} resync not delivered: {}", boardId, resyncFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        tailThread.interrupt();
+    }
+
+    private void append(String boardId, Object payload) {
+        mongoTemplate.insert(BoardEventRecord.builder()
+                .id(new ObjectId().toHexString())
+                .boardId(boardId)
+                .origin(instanceId)
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build(), COLLECTION);
+    }
+
+    private void shareResyncs() {
+        for (String boardId : List.copyOf(unshared)) {
+            if (!unshared.remove(boardId)) {
+                continue;
+            }
+            try {
+                append(boardId, ResyncRequired.builder().build());
+            } catch (RuntimeException e) {
+                unshared.add(boardId);
+                return;
+            }
+        }
+    }
+
+    private void ensureCappedCollection(long sizeBytes) {
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            try {
+                mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty().capped().size(sizeBytes));
+            } catch (MongoException e) {
+                // Another instance created it first
+                log.debug("Collection {} not created here: {}", COLLECTION, e.getMessage());
+            }
+        }
+    }
+
+    private void tail() {
+        while (running) {
+            Instant lookBack = resumeFrom.minus(CLOCK_SKEW);
+            try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION)
+                    .find(Filters.gte("createdAt", Date.from(lookBack)))
+                    .cursorType(CursorType.TailableAwait)
+                    .maxAwaitTime(1, TimeUnit.SECONDS)
+                    .iterator()) {
+                checkForGap();
+                // A tailable cursor with nothing to return yet is dead on arrival; reopen it
+                while (running && cursor.getServerCursor() != null) {
+                    Document document = cursor.tryNext();
+                    if (document != null) {
+                        accept(document);
+                    }
+                }
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    log.debug("Board event tail interrupted, reopening: {}", e.getMessage());
+                }
+            }
+            shareResyncs();
+            pause();
+        }
+    }
+
+    private void accept(Document document) {
+        String id = document.getObjectId("_id").toHexString();
+        if (recentIds.put(id, Boolean.TRUE) != null) {
+            duplicateCounter.increment();
+            return;
+        }
+        BoardEventRecord record = mongoTemplate.getConverter().read(BoardEventRecord.class, document);
+        if (record.getCreatedAt().isAfter(resumeFrom)) {
+            resumeFrom = record.getCreatedAt();
+        }
+        sawEvents = true;
+        receivedCounter.increment();
+        boolean remote = !instanceId.equals(record.getOrigin());
+        if (!remote && record.getPayload() instanceof ResyncRequired) {
+            // Our own subscribers were resynced when the original event failed
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onEvent(record.getBoardId(), record.getPayload(), remote);
+            } catch (RuntimeException e) {
+                log.warn("Board {} event {} not delivered: {}", record.getBoardId(), id, e.getMessage());
+            }
+        }
+    }
+
+    // If the last event we read has already been overwritten, so may the ones after it
+    private void checkForGap() {
+        if (!sawEvents) {
+            return;
+        }
+        Document oldest = mongoTemplate.getCollection(COLLECTION).find()
+                .sort(new Document("$natural", 1))
+                .limit(1)
+                .first();
+        if (oldest != null && oldest.getDate("createdAt").toInstant().isAfter(resumeFrom)) {
+            gapCounter.increment();
+            log.warn("Board event tail fell behind the capped collection; resyncing subscribers");
+            listeners.forEach(Listener::onGap);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
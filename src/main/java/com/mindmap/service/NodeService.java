@@ -1,36 +1,94 @@
 package com.mindmap.service;
 
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
 import com.mindmap.graphql.input.CreateNodeInput;
 import com.mindmap.graphql.input.UpdateNodeInput;
 import com.mindmap.graphql.subscription.ChangeType;
+import com.mindmap.graphql.subscription.EdgeChange;
 import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.graphql.subscription.NodeDelta;
+import com.mindmap.model.Edge;
 import com.mindmap.model.Node;
-import com.mindmap.model.User;
+import com.mindmap.model.UserSummary;
 import com.mindmap.repository.NodeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class NodeService {
 
     private final NodeRepository nodeRepository;
+    private final MongoTemplate mongoTemplate;
     private final EdgeService edgeService;
     private final SubscriptionService subscriptionService;
+    private final BoardStateCache boardStateCache;
+    private final NodeWriteBehindQueue nodeWriteBehindQueue;
+    private final BoardWriteExecutor boardWriteExecutor;
 
     public List<Node> getNodesByBoardId(String boardId) {
-        return nodeRepository.findByBoardId(boardId);
+        return boardStateCache.getBoard(boardId).nodeList();
+    }
+
+    public List<Node> getNodesByBoardId(String boardId, Collection<String> fields) {
+        Optional<BoardState> resident = boardStateCache.getBoardIfPresent(boardId);
+        if (resident.isPresent()) {
+            return resident.get().nodeList();
+        }
+        
+        // Only read the requested fields; partial nodes are never put in the cache
+        Query query = Query.query(Criteria.where("boardId").is(boardId));
+        fields.forEach(query.fields()::include);
+        return mongoTemplate.find(query, Node.class);
     }
 
     public Node getNode(String id) {
-        return nodeRepository.findById(id)
+        return boardStateCache.findNode(id)
                 .orElseThrow(() -> new RuntimeException("Node not found"));
     }
 
-    public Node createNode(CreateNodeInput input, User createdBy) {
+    public Node createNode(CreateNodeInput input, UserSummary createdBy) {
+        return boardWriteExecutor.run(input.getBoardId(), () -> insertNode(input, createdBy));
+    }
+
+    public Node updateNode(String id, UpdateNodeInput input) {
+        return updateNode(id, input, null);
+    }
+
+    // With an expectedVersion the update only applies if the node is still at that version,
+    // otherwise a VersionConflictException carries the current node
+    public Node updateNode(String id, UpdateNodeInput input, Long expectedVersion) {
+        return boardWriteExecutor.run(getNode(id).getBoardId(), () -> applyUpdate(id, input, expectedVersion));
+    }
+
+    public Boolean deleteNode(String id) {
+        return boardWriteExecutor.run(getNode(id).getBoardId(), () -> removeNode(id));
+    }
+
+    // Inline when already on the board's writer, as from BoardService.deleteBoard
+    public void deleteNodesByBoardId(String boardId) {
+        boardWriteExecutor.run(boardId, () -> {
+            boardStateCache.evict(boardId);
+            nodeRepository.deleteByBoardId(boardId);
+            return null;
+        });
+    }
+
+    // The methods below run on the board's writer, so the cached node cannot change underneath them
+
+    private Node insertNode(CreateNodeInput input, UserSummary createdBy) {
         Node node = Node.builder()
                 .boardId(input.getBoardId())
                 .label(input.getLabel())
@@ -49,6 +107,7 @@ public class NodeService {
                 .build();
         
         node = nodeRepository.save(node);
+        boardStateCache.putNode(node);
         
         // Publish node creation event
         NodeChange change = NodeChange.builder()
@@ -61,51 +120,36 @@ public class NodeService {
         return node;
     }
 
-    public Node updateNode(String id, UpdateNodeInput input) {
+    private Node applyUpdate(String id, UpdateNodeInput input, Long expectedVersion) {
         Node node = getNode(id);
+        Map<String, Object> changes = input.changedFields();
         
-        if (input.getLabel() != null) {
-            node.setLabel(input.getLabel());
-        }
-        if (input.getX() != null) {
-            node.setX(input.getX());
-        }
-        if (input.getY() != null) {
-            node.setY(input.getY());
-        }
-        if (input.getColor() != null) {
-            node.setColor(input.getColor());
-        }
-        if (input.getShape() != null) {
-            node.setShape(input.getShape());
-        }
-        if (input.getSize() != null) {
-            node.setSize(input.getSize());
-        }
-        if (input.getWidth() != null) {
-            node.setWidth(input.getWidth());
-        }
-        if (input.getHeight() != null) {
-            node.setHeight(input.getHeight());
-        }
-        if (input.getFontSize() != null) {
-            node.setFontSize(input.getFontSize());
-        }
-        if (input.getBold() != null) {
-            node.setBold(input.getBold());
-        }
-        if (input.getItalic() != null) {
-            node.setItalic(input.getItalic());
-        }
-        if (input.getData() != null) {
-            node.setData(input.getData());
+        if (nodeWriteBehindQueue.isEnabled()) {
+            // Memory is authoritative here, so the cached version is the current one
+            if (Versioning.isStale(expectedVersion, node.getVersion())) {
+                throw new VersionConflictException(node);
+            }
+            // Acknowledge from memory, Mongo catches up on the next flush. The cached node may be
+            // in use on other threads (resolvers, encoders), so the change goes on a copy.
+            Node updated = node.toBuilder().build();
+            PropertyAccessorFactory.forBeanPropertyAccess(updated).setPropertyValues(changes);
+            updated.setUpdatedAt(Instant.now());
+            updated.setVersion(Versioning.next(node.getVersion()));
+            Map<String, Object> dirty = new HashMap<>(changes);
+            dirty.put("version", updated.getVersion());
+            // Queued before memory changes: a reload in between flushes the queue first, so it
+            // can only ever read this change back, never miss it
+            nodeWriteBehindQueue.enqueue(id, dirty);
+            // Re-index the moved or resized node
+            boardStateCache.putNode(updated);
+            node = updated;
+        } else {
+            node = applyAtomically(node, changes, expectedVersion);
         }
         
-        node = nodeRepository.save(node);
-        
-        // Publish node update event
+        // Publish only what changed
         NodeChange change = NodeChange.builder()
-                .node(node)
+                .delta(NodeDelta.of(node, changes))
                 .nodeId(node.getId())
                 .changeType(ChangeType.UPDATED)
                 .build();
@@ -114,15 +158,27 @@ public class NodeService {
         return node;
     }
 
-    @Transactional
-    public Boolean deleteNode(String id) {
+    private Boolean removeNode(String id) {
         Node node = getNode(id);
         String boardId = node.getBoardId();
         
+        // Drop the node and its edges from memory before touching Mongo
+        List<Edge> removedEdges = boardStateCache.removeNode(boardId, id);
+        nodeWriteBehindQueue.discard(id);
+        
         // Delete all edges connected to this node
-        edgeService.deleteEdgesByNode(id);
+        edgeService.deleteEdgesByNode(boardId, id);
         
-        nodeRepository.delete(node);
+        // Unversioned on purpose: queued write-behind updates were just discarded
+        nodeRepository.deleteById(id);
+        
+        // Cascaded edges go out first, so they never outlive their node on the client
+        for (Edge edge : removedEdges) {
+            subscriptionService.publishEdgeChange(boardId, EdgeChange.builder()
+                    .edgeId(edge.getId())
+                    .changeType(ChangeType.DELETED)
+                    .build());
+        }
         
         // Publish node deletion event
         NodeChange change = NodeChange.builder()
@@ -135,9 +191,10 @@ public class NodeService {
         return true;
     }
 
-    @Transactional
-    public void deleteNodesByBoardId(String boardId) {
-        nodeRepository.deleteByBoardId(boardId);
+    private Node applyAtomically(Node cached, Map<String, Object> changes, Long expectedVersion) {
+        return Versioning.applyAtomically(mongoTemplate, Node.class, cached.getId(), changes, expectedVersion,
+                boardStateCache::putNode,
+                () -> boardStateCache.removeNode(cached.getBoardId(), cached.getId()),
+                () -> boardStateCache.evict(cached.getBoardId()));
     }
 }
-
@@ -0,0 +1,160 @@
+package com.mindmap.service;
+
+import com.mindmap.model.Node;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Slf4j
+public class NodeWriteBehindQueue {
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+
+    // nodeId -> dirty fields, later writes to the same field overwrite earlier ones
+    private final Map<String, Map<String, Object>> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+    private final Timer flushTimer;
+    private final Counter enqueuedCounter;
+    private final Counter writtenCounter;
+
+    public NodeWriteBehindQueue(MongoTemplate mongoTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${mindmap.write-behind.enabled:false}") boolean enabled,
+                                @Value("${mindmap.write-behind.flush-interval:500ms}") Duration flushInterval,
+                                @Value("${mindmap.write-behind.max-batch-size:500}") int maxBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+
+        Gauge.builder("mindmap.write_behind.queue_depth", pending, Map::size)
+                .description("Nodes with unflushed changes")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("mindmap.write_behind.flush")
+                .description("Time spent writing a batch of node changes to Mongo")
+                .register(meterRegistry);
+        this.enqueuedCounter = Counter.builder("mindmap.write_behind.enqueued")
+                .description("Node updates accepted by the queue")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("mindmap.write_behind.written")
+                .description("Coalesced node updates written to Mongo")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "node-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMs = flushInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+            log.info("Node write-behind enabled (interval {}ms, batch size {})", intervalMs, maxBatchSize);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(String nodeId, Map<String, Object> fields) {
+        Map<String, Object> dirty = new HashMap<>(fields);
+        dirty.put("updatedAt", Instant.now());
+        pending.merge(nodeId, dirty, (current, update) -> {
+            current.putAll(update);
+            return current;
+        });
+        enqueuedCounter.increment();
+
+        if (scheduler != null && pending.size() >= maxBatchSize) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    public void discard(String nodeId) {
+        pending.remove(nodeId);
+    }
+
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Object>> batch = new HashMap<>();
+        for (String nodeId : List.copyOf(pending.keySet())) {
+            Map<String, Object> fields = pending.remove(nodeId);
+            if (fields != null) {
+                batch.put(nodeId, fields);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Node.class);
+        batch.forEach((nodeId, fields) -> {
+            Update update = new Update();
+            fields.forEach(update::set);
+            operations.updateOne(Query.query(Criteria.where("_id").is(nodeId)), update);
+        });
+
+        try {
+            flushTimer.record(() -> operations.execute());
+            writtenCounter.increment(batch.size());
+        } catch (RuntimeException e) {
+            // Put the batch back without clobbering anything newer that arrived meanwhile
+            batch.forEach((nodeId, fields) -> pending.merge(nodeId, fields, (newer, failed) -> {
+                failed.putAll(newer);
+                return failed;
+            }));
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Node write-behind queue drained on shutdown");
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Node write-behind flush failed, will retry: {}", e.getMessage());
+        }
+    }
+}
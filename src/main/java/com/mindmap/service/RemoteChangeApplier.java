@@ -0,0 +1,110 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.subscription.BoardOperationsBatch;
+import com.mindmap.graphql.subscription.BoardUpdate;
+import com.mindmap.graphql.subscription.ChangeType;
+import com.mindmap.graphql.subscription.EdgeChange;
+import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.graphql.subscription.ResyncRequired;
+import com.mindmap.graphql.subscription.UpdateType;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// Keeps this instance's cached boards in step with changes made on other instances. Changes are
+// applied on the board's writer so they never interleave with a local mutation; anything that
+// cannot be applied exactly drops the board from memory, to be reloaded from Mongo.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RemoteChangeApplier {
+
+    private final BoardStateCache boardStateCache;
+    private final BoardWriteExecutor boardWriteExecutor;
+
+    void apply(String boardId, Object payload) {
+        if (boardStateCache.getBoardIfPresent(boardId).isEmpty()) {
+            // Not resident; the next load reads the change from Mongo
+            return;
+        }
+        if (payload instanceof ResyncRequired
+                || (payload instanceof BoardUpdate update && update.getUpdateType() == UpdateType.DELETED)) {
+            boardStateCache.evict(boardId);
+            return;
+        }
+        try {
+            boardWriteExecutor.run(boardId, () -> {
+                if (!applyAll(boardId, payload)) {
+                    boardStateCache.evict(boardId);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Board {} remote change not applied, dropping it from memory: {}", boardId, e.getMessage());
+            boardStateCache.evict(boardId);
+        }
+    }
+
+    // False when the cached board has drifted from the change and must be reloaded
+    private boolean applyAll(String boardId, Object payload) {
+        if (payload instanceof NodeChange change) {
+            return applyNode(boardId, change);
+        }
+        if (payload instanceof EdgeChange change) {
+            return applyEdge(boardId, change);
+        }
+        if (payload instanceof BoardOperationsBatch batch) {
+            boolean applied = true;
+            for (NodeChange change : batch.getNodeChanges()) {
+                applied &= applyNode(boardId, change);
+            }
+            for (EdgeChange change : batch.getEdgeChanges()) {
+                applied &= applyEdge(boardId, change);
+            }
+            return applied;
+        }
+        // Board metadata and cursors are not part of the cached state
+        return true;
+    }
+
+    private boolean applyNode(String boardId, NodeChange change) {
+        if (change.getChangeType() == ChangeType.CREATED) {
+            boardStateCache.putNode(change.getNode());
+            return true;
+        }
+        if (change.getChangeType() == ChangeType.DELETED) {
+            boardStateCache.removeNode(boardId, change.getNodeId());
+            return true;
+        }
+        Node current = boardStateCache.getBoardIfPresent(boardId)
+                .map(state -> state.getNode(change.getNodeId()))
+                .orElse(null);
+        if (current == null || change.getDelta() == null) {
+            return false;
+        }
+        boardStateCache.putNode(change.getDelta().appliedTo(current));
+        return true;
+    }
+
+    private boolean applyEdge(String boardId, EdgeChange change) {
+        if (change.getChangeType() == ChangeType.CREATED) {
+            boardStateCache.putEdge(change.getEdge());
+            return true;
+        }
+        if (change.getChangeType() == ChangeType.DELETED) {
+            boardStateCache.removeEdge(boardId, change.getEdgeId());
+            return true;
+        }
+        Edge current = boardStateCache.getBoardIfPresent(boardId)
+                .map(state -> state.getEdge(change.getEdgeId()))
+                .orElse(null);
+        if (current == null || change.getDelta() == null) {
+            return false;
+        }
+        boardStateCache.putEdge(change.getDelta().appliedTo(current));
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindmap.service;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs one board's tasks in submission order on a shared pool, never two at once.
+// Works through a limited number per turn so one busy board cannot starve the rest.
+@Slf4j
+class SerialExecutor {
+
+    private static final int TASKS_PER_TURN = 64;
+
+    private final Executor pool;
+    private final int capacity;
+    private final Timer queueWaitTimer;
+    private final Timer deliveryTimer;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    SerialExecutor(Executor pool, int capacity, Timer queueWaitTimer, Timer deliveryTimer) {
+        this.pool = pool;
+        this.capacity = capacity;
+        this.queueWaitTimer = queueWaitTimer;
+        this.deliveryTimer = deliveryTimer;
+    }
+
+    // False when the queue is full; the caller decides what a dropped task means
+    boolean execute(Runnable task) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            return false;
+        }
+        long enqueuedAt = System.nanoTime();
+        tasks.add(() -> {
+            queueWaitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            deliveryTimer.record(task);
+        });
+        schedule();
+        return true;
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                pool.execute(this::runTurn);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private void runTurn() {
+        try {
+            Runnable task;
+            for (int run = 0; run < TASKS_PER_TURN && (task = tasks.poll()) != null; run++) {
+                queued.decrementAndGet();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Serial task failed: {}", e.getMessage());
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
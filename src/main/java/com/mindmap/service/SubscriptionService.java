@@ -1,78 +1,299 @@
 package com.mindmap.service;
 
+import com.mindmap.cache.BoardStateCache;
 import com.mindmap.graphql.subscription.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
+// Board channels are reference counted: opened by the first subscriber and closed a grace period
+// after the last one leaves, so brief reconnects can still resume from the replay buffer.
+// Changes reach the channels through the BoardEventBus, which may span several instances.
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class SubscriptionService {
 
-    private final Map<String, Sinks.Many<BoardUpdate>> boardUpdateSinks = new ConcurrentHashMap<>();
-    private final Map<String, Sinks.Many<NodeChange>> nodeChangeSinks = new ConcurrentHashMap<>();
-    private final Map<String, Sinks.Many<EdgeChange>> edgeChangeSinks = new ConcurrentHashMap<>();
-    private final Map<String, Sinks.Many<CursorPosition>> cursorSinks = new ConcurrentHashMap<>();
+    private final Map<String, BoardChannel> channels = new ConcurrentHashMap<>();
+    private final ChannelSettings settings;
+    private final long idleGracePeriodMs;
+    private final ScheduledExecutorService reaper;
+    private final ExecutorService fanoutPool;
+    private final BoardEventBus eventBus;
+    private final ViewportRegistry viewportRegistry;
+    private final RemoteChangeApplier remoteChangeApplier;
+    private final BoardStateCache boardStateCache;
+
+    public SubscriptionService(BoardEventBus eventBus,
+                               ViewportRegistry viewportRegistry,
+                               RemoteChangeApplier remoteChangeApplier,
+                               BoardStateCache boardStateCache,
+                               MeterRegistry meterRegistry,
+                               @Value("${mindmap.events.replay-capacity:1024}") int replayCapacity,
+                               @Value("${mindmap.events.replay-max-age:5m}") Duration replayMaxAge,
+                               @Value("${mindmap.events.idle-grace-period:2m}") Duration idleGracePeriod,
+                               @Value("${mindmap.events.subscriber-buffer-size:1024}") int subscriberBufferSize,
+                               @Value("${mindmap.events.fanout-threads:0}") int fanoutThreads,
+                               @Value("${mindmap.events.fanout-queue-size:10000}") int fanoutQueueSize) {
+        AtomicInteger fanoutThreadCount = new AtomicInteger();
+        this.fanoutPool = Executors.newFixedThreadPool(
+                fanoutThreads > 0 ? fanoutThreads : Runtime.getRuntime().availableProcessors(), r -> {
+                    Thread thread = new Thread(r, "board-fanout-" + fanoutThreadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.settings = new ChannelSettings(replayCapacity, replayMaxAge.toMillis(), subscriberBufferSize,
+                Counter.builder("mindmap.subscriptions.conflated")
+                        .description("Queued events replaced by a newer change for the same entity")
+                        .register(meterRegistry),
+                Counter.builder("mindmap.subscriptions.overflows")
+                        .description("Subscribers or fan-out queues that fell too far behind and signalled a resync")
+                        .register(meterRegistry),
+                fanoutPool,
+                fanoutQueueSize,
+                Timer.builder("mindmap.fanout.queue_wait")
+                        .description("Time an event waits before its board's fan-out picks it up")
+                        .register(meterRegistry),
+                Timer.builder("mindmap.fanout.delivery")
+                        .description("Time spent handing one event to all of a board's subscribers")
+                        .register(meterRegistry));
+        this.idleGracePeriodMs = idleGracePeriod.toMillis();
+        this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "board-channel-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("mindmap.subscriptions.boards", channels, Map::size)
+                .description("Boards with an open event channel")
+                .register(meterRegistry);
+        Gauge.builder("mindmap.subscriptions.subscribers", this, SubscriptionService::totalSubscribers)
+                .description("Live board event subscribers across all boards")
+                .register(meterRegistry);
+        Gauge.builder("mindmap.fanout.queued", this, SubscriptionService::totalQueuedFanout)
+                .description("Events waiting for fan-out across all boards")
+                .register(meterRegistry);
+
+        this.eventBus = eventBus;
+        this.viewportRegistry = viewportRegistry;
+        this.remoteChangeApplier = remoteChangeApplier;
+        this.boardStateCache = boardStateCache;
+        eventBus.subscribe(new BoardEventBus.Listener() {
+            @Override
+            public void onEvent(String boardId, Object payload, boolean remote) {
+                deliver(boardId, payload, remote);
+            }
+
+            @Override
+            public void onGap() {
+                // Other instances' changes may be missing from memory as well
+                boardStateCache.evictAll();
+                viewportRegistry.reloadAll();
+                channels.values().forEach(BoardChannel::signalResync);
+            }
+        });
+    }
+
+    public long currentSequence(String boardId) {
+        // Opening the channel here means changes made between a snapshot and the
+        // subscription that follows it are buffered for replay
+        BoardChannel channel = channels.computeIfAbsent(boardId, this::newIdleChannel);
+        return channel.currentSequence();
+    }
+
+    public Flux<BoardEvent> subscribeToBoardEvents(String boardId, Long sinceSequence, boolean includeCursors) {
+        return subscribeToBoardEvents(boardId, sinceSequence, includeCursors, null);
+    }
+
+    // With a viewerId, node and edge changes are limited to that viewer's reported viewport
+    public Flux<BoardEvent> subscribeToBoardEvents(String boardId, Long sinceSequence, boolean includeCursors,
+                                                   String viewerId) {
+        Predicate<BoardEvent> filter = event -> includeCursors || !(event.getPayload() instanceof CursorBatch);
+        if (viewerId != null) {
+            filter = filter.and(event -> viewportRegistry.accepts(boardId, viewerId, event.getAudience()));
+        }
+        Predicate<BoardEvent> accepted = filter;
+        Flux<BoardEvent> events = Flux.using(
+                () -> acquire(boardId),
+                channel -> channel.stream(sinceSequence, accepted),
+                channel -> release(boardId, channel));
+        if (viewerId == null) {
+            return events;
+        }
+        return Flux.using(
+                () -> {
+                    viewportRegistry.attach(boardId, viewerId);
+                    return viewerId;
+                },
+                viewer -> events,
+                viewer -> viewportRegistry.detach(boardId, viewer));
+    }
+
+    public void updateViewport(String boardId, ViewportChange change) {
+        // Through the bus, since the viewer's subscription may live on another instance
+        eventBus.publish(boardId, change);
+    }
+
+    public Map<String, Integer> subscriberCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        channels.forEach((boardId, channel) -> counts.put(boardId, channel.subscribers()));
+        return counts;
+    }
+
+    // Single-type views over the board stream for the older subscriptions
 
     public Flux<BoardUpdate> subscribeToBoardUpdates(String boardId) {
-        return getOrCreateBoardSink(boardId).asFlux();
+        return payloads(boardId, BoardUpdate.class);
     }
 
-    public Flux<NodeChange> subscribeToNodeChanges(String boardId) {
-        return getOrCreateNodeSink(boardId).asFlux();
+    public Flux<NodeChange> subscribeToNodeChanges(String boardId, String viewerId) {
+        return payloads(boardId, viewerId, NodeChange.class);
     }
 
-    public Flux<EdgeChange> subscribeToEdgeChanges(String boardId) {
-        return getOrCreateEdgeSink(boardId).asFlux();
+    public Flux<EdgeChange> subscribeToEdgeChanges(String boardId, String viewerId) {
+        return payloads(boardId, viewerId, EdgeChange.class);
     }
 
     public Flux<CursorPosition> subscribeToCursorMovements(String boardId) {
-        return getOrCreateCursorSink(boardId).asFlux();
+        return subscribeToCursorBatches(boardId).flatMapIterable(CursorBatch::getCursors);
+    }
+
+    public Flux<CursorBatch> subscribeToCursorBatches(String boardId) {
+        return payloads(boardId, CursorBatch.class);
+    }
+
+    public Flux<BoardOperationsBatch> subscribeToBoardOperations(String boardId) {
+        return payloads(boardId, BoardOperationsBatch.class);
     }
 
     public void publishBoardUpdate(BoardUpdate update) {
-        String boardId = update.getBoard().getId();
-        Sinks.Many<BoardUpdate> sink = getOrCreateBoardSink(boardId);
-        sink.tryEmitNext(update);
+        publish(update.getBoard().getId(), update);
     }
 
     public void publishNodeChange(String boardId, NodeChange change) {
-        Sinks.Many<NodeChange> sink = getOrCreateNodeSink(boardId);
-        sink.tryEmitNext(change);
+        publish(boardId, change);
     }
 
     public void publishEdgeChange(String boardId, EdgeChange change) {
-        Sinks.Many<EdgeChange> sink = getOrCreateEdgeSink(boardId);
-        sink.tryEmitNext(change);
+        publish(boardId, change);
     }
 
-    public void publishCursorPosition(String boardId, CursorPosition position) {
-        Sinks.Many<CursorPosition> sink = getOrCreateCursorSink(boardId);
-        sink.tryEmitNext(position);
+    public void publishCursorBatch(String boardId, CursorBatch batch) {
+        publish(boardId, batch);
     }
 
-    private Sinks.Many<BoardUpdate> getOrCreateBoardSink(String boardId) {
-        return boardUpdateSinks.computeIfAbsent(boardId, 
-            k -> Sinks.many().multicast().directBestEffort());
+    public void publishBoardOperations(String boardId, BoardOperationsBatch batch) {
+        publish(boardId, batch);
     }
 
-    private Sinks.Many<NodeChange> getOrCreateNodeSink(String boardId) {
-        return nodeChangeSinks.computeIfAbsent(boardId, 
-            k -> Sinks.many().multicast().directBestEffort());
+    @PreDestroy
+    public void shutdown() {
+        reaper.shutdownNow();
+        fanoutPool.shutdown();
     }
 
-    private Sinks.Many<EdgeChange> getOrCreateEdgeSink(String boardId) {
-        return edgeChangeSinks.computeIfAbsent(boardId, 
-            k -> Sinks.many().multicast().directBestEffort());
+    private void publish(String boardId, Object payload) {
+        eventBus.publish(boardId, payload);
     }
 
-    private Sinks.Many<CursorPosition> getOrCreateCursorSink(String boardId) {
-        return cursorSinks.computeIfAbsent(boardId, 
-            k -> Sinks.many().multicast().directBestEffort());
+    private void deliver(String boardId, Object payload, boolean remote) {
+        if (payload instanceof ViewportChange change) {
+            viewportRegistry.apply(boardId, change);
+            return;
+        }
+        if (remote) {
+            // Memory first, so a read prompted by the event already sees the change
+            remoteChangeApplier.apply(boardId, payload);
+        }
+        if (payload instanceof ResyncRequired) {
+            // A change to this board was not shared between instances
+            viewportRegistry.reload(boardId);
+            BoardChannel channel = channels.get(boardId);
+            if (channel != null) {
+                channel.signalResync();
+            }
+            return;
+        }
+        // Routed even without a channel, the registry has to follow every change of boards it tracks
+        Set<String> audience = viewportRegistry.route(boardId, payload);
+        // Nobody is listening here: nothing to sequence, buffer or allocate
+        BoardChannel channel = channels.get(boardId);
+        if (channel != null) {
+            channel.emit(payload, audience);
+        }
+    }
+
+    private <T> Flux<T> payloads(String boardId, Class<T> type) {
+        return payloads(boardId, null, type);
+    }
+
+    private <T> Flux<T> payloads(String boardId, String viewerId, Class<T> type) {
+        return subscribeToBoardEvents(boardId, null, true, viewerId)
+                .map(BoardEvent::getPayload)
+                .ofType(type);
     }
-}
 
+    private BoardChannel acquire(String boardId) {
+        return channels.compute(boardId, (id, channel) -> {
+            BoardChannel target = channel != null ? channel : newChannel(id);
+            target.retain();
+            return target;
+        });
+    }
+
+    private void release(String boardId, BoardChannel channel) {
+        channels.computeIfPresent(boardId, (id, current) -> {
+            if (current == channel && current.release() == 0) {
+                scheduleTeardown(id, current);
+            }
+            return current;
+        });
+    }
+
+    private BoardChannel newIdleChannel(String boardId) {
+        BoardChannel channel = newChannel(boardId);
+        scheduleTeardown(boardId, channel);
+        return channel;
+    }
+
+    private BoardChannel newChannel(String boardId) {
+        return new BoardChannel(boardId, settings);
+    }
+
+    private void scheduleTeardown(String boardId, BoardChannel channel) {
+        long idleSince = channel.markIdle();
+        reaper.schedule(() -> channels.computeIfPresent(boardId, (id, current) -> {
+            // Still idle since this teardown was scheduled, otherwise someone came back
+            if (current == channel && current.isIdleSince(idleSince)) {
+                log.debug("Closed event channel for idle board {}", boardId);
+                return null;
+            }
+            return current;
+        }), idleGracePeriodMs, TimeUnit.MILLISECONDS);
+    }
+
+    private int totalQueuedFanout() {
+        return channels.values().stream().mapToInt(BoardChannel::queuedFanout).sum();
+    }
+
+    private int totalSubscribers() {
+        return channels.values().stream().mapToInt(BoardChannel::subscribers).sum();
+    }
+}
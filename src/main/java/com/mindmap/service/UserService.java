@@ -2,6 +2,7 @@ package com.mindmap.service;
 
 import com.mindmap.model.User;
 import com.mindmap.repository.UserRepository;
+import com.mindmap.security.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -14,6 +15,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserSummaryService userSummaryService;
+    private final UserCache userCache;
 
     public User createUser(String username, String email, String password) {
         User user = User.builder()
@@ -27,6 +30,18 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    public User changeUsername(String userId, String username) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setUsername(username);
+        user = userRepository.save(user);
+        userCache.invalidate(user);
+        
+        // Keep the summaries embedded in boards, nodes and edges in step
+        userSummaryService.refresh(user);
+        return user;
+    }
+
     public User findByUsername(String username) {
         return userRepository.findByUsername(username).orElse(null);
     }
@@ -0,0 +1,112 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.model.User;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSummaryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BoardStateCache boardStateCache;
+
+    // Rewrites the username embedded in nodes, edges and boards, one multi-update per collection
+    public void refresh(User user) {
+        Object userId = toStoredId(user.getId());
+        String username = user.getUsername();
+
+        mongoTemplate.getCollection("nodes").updateMany(
+                Filters.eq("createdBy._id", userId), Updates.set("createdBy.username", username));
+        mongoTemplate.getCollection("edges").updateMany(
+                Filters.eq("createdBy._id", userId), Updates.set("createdBy.username", username));
+        mongoTemplate.getCollection("boards").updateMany(
+                Filters.eq("owner._id", userId), Updates.set("owner.username", username));
+        mongoTemplate.getCollection("boards").updateMany(
+                Filters.eq("collaborators.user._id", userId),
+                Updates.set("collaborators.$[c].user.username", username),
+                new UpdateOptions().arrayFilters(List.of(Filters.eq("c.user._id", userId))));
+
+        // Cached entities hold the old immutable summaries
+        boardStateCache.evictAll();
+    }
+
+    // One-shot conversion of legacy @DBRef user references into embedded summaries
+    public long migrateDbRefs() {
+        Map<Object, String> usernames = loadUsernames();
+        long migrated = migrateField("nodes", "createdBy", usernames)
+                + migrateField("edges", "createdBy", usernames)
+                + migrateField("boards", "owner", usernames)
+                + migrateCollaborators(usernames);
+        if (migrated > 0) {
+            boardStateCache.evictAll();
+        }
+        return migrated;
+    }
+
+    private long migrateField(String collectionName, String field, Map<Object, String> usernames) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+        Bson legacy = Filters.exists(field + ".$ref");
+
+        long migrated = 0;
+        List<Object> userIds = collection.distinct(field + ".$id", legacy, Object.class).into(new ArrayList<>());
+        for (Object userId : userIds) {
+            migrated += collection.updateMany(
+                    Filters.and(legacy, Filters.eq(field + ".$id", userId)),
+                    Updates.set(field, summary(userId, usernames))).getModifiedCount();
+        }
+        return migrated;
+    }
+
+    private long migrateCollaborators(Map<Object, String> usernames) {
+        MongoCollection<Document> boards = mongoTemplate.getCollection("boards");
+
+        long migrated = 0;
+        for (Document board : boards.find(Filters.exists("collaborators.user.$ref"))) {
+            List<Document> collaborators = new ArrayList<>();
+            for (Document collaborator : board.getList("collaborators", Document.class)) {
+                if (collaborator.get("user") instanceof DBRef ref) {
+                    collaborator.put("user", summary(ref.getId(), usernames));
+                }
+                collaborators.add(collaborator);
+            }
+            boards.updateOne(Filters.eq("_id", board.get("_id")), Updates.set("collaborators", collaborators));
+            migrated++;
+        }
+        return migrated;
+    }
+
+    private Map<Object, String> loadUsernames() {
+        Map<Object, String> usernames = new HashMap<>();
+        for (Document user : mongoTemplate.getCollection("users").find()
+                .projection(new Document("username", 1))) {
+            usernames.put(user.get("_id"), user.getString("username"));
+        }
+        return usernames;
+    }
+
+    private static Document summary(Object userId, Map<Object, String> usernames) {
+        return new Document("_id", userId).append("username", usernames.get(userId));
+    }
+
+    private static Object toStoredId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
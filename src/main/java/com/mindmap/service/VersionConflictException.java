@@ -0,0 +1,17 @@
+package com.mindmap.service;
+
+import lombok.Getter;
+
+// An update named a version the node or edge has already moved past. Conflicts are ordinary
+// traffic under concurrent editing, so no stack trace is captured.
+@Getter
+public class VersionConflictException extends RuntimeException {
+
+    // The node or edge as it is now
+    private final Object current;
+
+    public VersionConflictException(Object current) {
+        super("Version conflict", null, false, false);
+        this.current = current;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mindmap.service;
+
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Optimistic versions shared by nodes and edges. Documents written before versioning have no
+// version field and count as version 0.
+final class Versioning {
+
+    private Versioning() {
+    }
+
+    static long current(Long version) {
+        return version == null ? 0 : version;
+    }
+
+    static long next(Long version) {
+        return current(version) + 1;
+    }
+
+    // Checked against the cached copy, which the board's writer keeps current
+    static boolean isStale(Long expectedVersion, Long version) {
+        return expectedVersion != null && expectedVersion != current(version);
+    }
+
+    static Criteria versionIs(long version) {
+        return version == 0
+                ? Criteria.where("version").in(0L, null)
+                : Criteria.where("version").is(version);
+    }
+
+    // Single conditional $set round trip that returns the merged document. The callbacks keep the
+    // caller's cached copy in line with what Mongo reports: put the current document, remove one
+    // that no longer exists, or evict the board when it is unknown whether the update applied.
+    static <T> T applyAtomically(MongoTemplate mongoTemplate, Class<T> type, String id,
+                                 Map<String, Object> changes, Long expectedVersion,
+                                 Consumer<T> put, Runnable remove, Runnable evict) {
+        Update update = new Update();
+        changes.forEach(update::set);
+        update.set("updatedAt", Instant.now());
+        update.inc("version", 1);
+
+        Query query = Query.query(Criteria.where("_id").is(id));
+        if (expectedVersion != null) {
+            query.addCriteria(versionIs(expectedVersion));
+        }
+
+        T updated;
+        try {
+            updated = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), type);
+        } catch (RuntimeException e) {
+            evict.run();
+            throw e;
+        }
+
+        if (updated == null) {
+            T current = expectedVersion != null ? mongoTemplate.findById(id, type) : null;
+            if (current != null) {
+                put.accept(current);
+                throw new VersionConflictException(current);
+            }
+            remove.run();
+            throw new RuntimeException(type.getSimpleName() + " not found");
+        }
+        put.accept(updated);
+        return updated;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mindmap.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A viewer's new viewport, sent over the event bus so it reaches whichever instance holds the
+// viewer's subscription. Never delivered to subscribers.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewportChange {
+    private String viewerId;
+    private double minX;
+    private double minY;
+    private double maxX;
+    private double maxY;
+}
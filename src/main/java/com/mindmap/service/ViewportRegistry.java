@@ -0,0 +1,217 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.subscription.BoardOperationsBatch;
+import com.mindmap.graphql.subscription.ChangeType;
+import com.mindmap.graphql.subscription.EdgeChange;
+import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.graphql.subscription.NodeDelta;
+import com.mindmap.model.Edge;
+import com.mindmap.spatial.Box;
+import com.mindmap.spatial.QuadTree;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Viewports of this instance's subscribers, indexed per board, so each change is matched to the
+// viewers it concerns with one lookup instead of a test per subscriber. A board is only tracked
+// while one of its subscribers asked for viewport filtering.
+@Component
+public class ViewportRegistry {
+
+    private final BoardStateCache boardStateCache;
+    private final Map<String, BoardViewports> boards = new ConcurrentHashMap<>();
+
+    public ViewportRegistry(BoardStateCache boardStateCache) {
+        this.boardStateCache = boardStateCache;
+    }
+
+    void attach(String boardId, String viewerId) {
+        // Loaded outside the map lock; changes routed meanwhile are absolute, so seeing one twice is harmless
+        BoardState state = boardStateCache.getBoard(boardId);
+        boards.compute(boardId, (id, viewports) -> {
+            BoardViewports target = viewports != null ? viewports : new BoardViewports(state);
+            target.attach(viewerId);
+            return target;
+        });
+    }
+
+    void detach(String boardId, String viewerId) {
+        boards.computeIfPresent(boardId, (id, viewports) -> viewports.detach(viewerId) ? null : viewports);
+    }
+
+    // Viewers on other instances are someone else's business
+    void apply(String boardId, ViewportChange change) {
+        BoardViewports viewports = boards.get(boardId);
+        if (viewports != null) {
+            viewports.move(change);
+        }
+    }
+
+    // After a gap in the changes routed here, rebuild the board's copy from the cache
+    void reload(String boardId) {
+        if (boards.containsKey(boardId)) {
+            BoardState state = boardStateCache.getBoard(boardId);
+            boards.computeIfPresent(boardId, (id, viewports) -> {
+                viewports.reset(state);
+                return viewports;
+            });
+        }
+    }
+
+    void reloadAll() {
+        boards.keySet().forEach(this::reload);
+    }
+
+    // Viewers the change is relevant to, or null if it goes to everyone. Also moves the registry's
+    // copy of the board forward, so it must see every change exactly once and in board order.
+    Set<String> route(String boardId, Object payload) {
+        BoardViewports viewports = boards.get(boardId);
+        return viewports != null ? viewports.route(payload) : null;
+    }
+
+    // Until a viewer reports a viewport it receives everything
+    boolean accepts(String boardId, String viewerId, Set<String> audience) {
+        if (audience == null || audience.contains(viewerId)) {
+            return true;
+        }
+        BoardViewports viewports = boards.get(boardId);
+        return viewports == null || !viewports.hasViewport(viewerId);
+    }
+
+    private static final class BoardViewports {
+        private final QuadTree<String> viewports = new QuadTree<>();
+        private final Set<String> viewers = new HashSet<>();
+        private final Set<String> placed = new HashSet<>();
+        // Where each node was after the last change routed, so moves out of a viewport are seen
+        private final Map<String, Box> nodeBounds = new HashMap<>();
+        private final Map<String, String[]> edgeEnds = new HashMap<>();
+
+        BoardViewports(BoardState state) {
+            reset(state);
+        }
+
+        synchronized void reset(BoardState state) {
+            nodeBounds.clear();
+            edgeEnds.clear();
+            state.getNodes().values().forEach(node -> nodeBounds.put(node.getId(), BoardState.boundsOf(node)));
+            state.getEdges().values().forEach(this::trackEdge);
+        }
+
+        synchronized void attach(String viewerId) {
+            viewers.add(viewerId);
+        }
+
+        // True when the last viewer has gone
+        synchronized boolean detach(String viewerId) {
+            viewers.remove(viewerId);
+            placed.remove(viewerId);
+            viewports.remove(viewerId);
+            return viewers.isEmpty();
+        }
+
+        synchronized boolean hasViewport(String viewerId) {
+            return placed.contains(viewerId);
+        }
+
+        synchronized void move(ViewportChange change) {
+            if (viewers.contains(change.getViewerId())) {
+                placed.add(change.getViewerId());
+                viewports.put(change.getViewerId(), change.getViewerId(),
+                        change.getMinX(), change.getMinY(), change.getMaxX(), change.getMaxY());
+            }
+        }
+
+        synchronized Set<String> route(Object payload) {
+            if (payload instanceof NodeChange change) {
+                return routeNode(change);
+            }
+            if (payload instanceof EdgeChange change) {
+                return routeEdge(change);
+            }
+            if (payload instanceof BoardOperationsBatch batch) {
+                Set<String> audience = new HashSet<>();
+                boolean everyone = false;
+                for (NodeChange change : batch.getNodeChanges()) {
+                    everyone |= !addAll(audience, routeNode(change));
+                }
+                for (EdgeChange change : batch.getEdgeChanges()) {
+                    everyone |= !addAll(audience, routeEdge(change));
+                }
+                return everyone ? null : audience;
+            }
+            return null;
+        }
+
+        private Set<String> routeNode(NodeChange change) {
+            if (change.getChangeType() == ChangeType.CREATED) {
+                Box bounds = BoardState.boundsOf(change.getNode());
+                nodeBounds.put(change.getNodeId(), bounds);
+                return viewersAt(bounds, null);
+            }
+            if (change.getChangeType() == ChangeType.UPDATED) {
+                Box before = nodeBounds.get(change.getNodeId());
+                if (before == null) {
+                    return null;
+                }
+                Box after = moved(before, change.getDelta());
+                nodeBounds.put(change.getNodeId(), after);
+                // Viewers it left and viewers it entered both need to hear about it
+                return viewersAt(after, viewersAt(before, null));
+            }
+            nodeBounds.remove(change.getNodeId());
+            return null;
+        }
+
+        private Set<String> routeEdge(EdgeChange change) {
+            if (change.getChangeType() == ChangeType.CREATED) {
+                trackEdge(change.getEdge());
+            } else if (change.getChangeType() == ChangeType.DELETED) {
+                edgeEnds.remove(change.getEdgeId());
+                return null;
+            }
+            String[] ends = edgeEnds.get(change.getEdgeId());
+            Box source = ends != null ? nodeBounds.get(ends[0]) : null;
+            Box target = ends != null ? nodeBounds.get(ends[1]) : null;
+            if (source == null || target == null) {
+                return null;
+            }
+            return viewersAt(target, viewersAt(source, null));
+        }
+
+        private void trackEdge(Edge edge) {
+            edgeEnds.put(edge.getId(), new String[] {edge.getSource(), edge.getTarget()});
+        }
+
+        private Set<String> viewersAt(Box bounds, Set<String> into) {
+            Set<String> found = into != null ? into : new HashSet<>();
+            viewports.query(bounds, found::add);
+            return found;
+        }
+
+        private static Box moved(Box before, NodeDelta delta) {
+            if (delta == null) {
+                return before;
+            }
+            return Box.around(
+                    delta.getX() != null ? delta.getX() : before.centerX(),
+                    delta.getY() != null ? delta.getY() : before.centerY(),
+                    delta.getWidth() != null ? delta.getWidth() : before.width(),
+                    delta.getHeight() != null ? delta.getHeight() : before.height());
+        }
+
+        // False when the part has no audience of its own and must go to everyone
+        private static boolean addAll(Set<String> audience, Set<String> part) {
+            if (part == null) {
+                return false;
+            }
+            audience.addAll(part);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.payload.BoardOverview;
+import com.mindmap.graphql.payload.ViewportSlice;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import com.mindmap.spatial.Box;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ViewportService {
+
+    // Overviews are cached per power-of-two zoom level; below this one clusters just get bigger
+    private static final int MIN_ZOOM_LEVEL = -16;
+
+    private final BoardStateCache boardStateCache;
+    private final SubscriptionService subscriptionService;
+    private final double clusterCellPixels;
+
+    public ViewportService(BoardStateCache boardStateCache,
+                           SubscriptionService subscriptionService,
+                           @Value("${mindmap.overview.cell-pixels:96}") double clusterCellPixels) {
+        this.boardStateCache = boardStateCache;
+        this.subscriptionService = subscriptionService;
+        this.clusterCellPixels = clusterCellPixels;
+    }
+
+    public void updateViewport(String boardId, String viewerId, double minX, double minY,
+                               double maxX, double maxY, double margin) {
+        if (minX > maxX || minY > maxY) {
+            throw new RuntimeException("Invalid viewport");
+        }
+        Box area = new Box(minX, minY, maxX, maxY).grow(margin);
+        subscriptionService.updateViewport(boardId, ViewportChange.builder()
+                .viewerId(viewerId)
+                .minX(area.minX())
+                .minY(area.minY())
+                .maxX(area.maxX())
+                .maxY(area.maxY())
+                .build());
+    }
+
+    public ViewportSlice nodesInViewport(String boardId, double minX, double minY,
+                                         double maxX, double maxY, double margin) {
+        if (minX > maxX || minY > maxY) {
+            throw new RuntimeException("Invalid viewport");
+        }
+        // Read before the data, as for snapshots
+        long sequence = subscriptionService.currentSequence(boardId);
+        BoardState state = boardStateCache.getBoard(boardId);
+
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        Box area = new Box(minX, minY, maxX, maxY).grow(margin);
+        state.nodesWithin(area.minX(), area.minY(), area.maxX(), area.maxY())
+                .forEach(node -> nodes.put(node.getId(), node));
+        Set<String> visible = new HashSet<>(nodes.keySet());
+
+        List<Edge> edges = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String nodeId : visible) {
+            for (Edge edge : state.edgesOf(nodeId)) {
+                if (!seen.add(edge.getId())) {
+                    // Both ends are visible
+                    continue;
+                }
+                // The client can only draw an edge whose both ends exist
+                String farEnd = nodeId.equals(edge.getSource()) ? edge.getTarget() : edge.getSource();
+                Node anchor = nodes.containsKey(farEnd) ? null : state.getNode(farEnd);
+                if (anchor != null) {
+                    nodes.put(farEnd, anchor);
+                }
+                edges.add(edge);
+            }
+        }
+
+        return ViewportSlice.builder()
+                .nodes(new ArrayList<>(nodes.values()))
+                .edges(edges)
+                .totalNodes(state.getNodes().size())
+                .sequence(sequence)
+                .build();
+    }
+
+    // Clusters that each cover about clusterCellPixels on screen at the given zoom
+    public BoardOverview boardOverview(String boardId, double zoom) {
+        if (!(zoom > 0)) {
+            throw new RuntimeException("Invalid zoom");
+        }
+        long sequence = subscriptionService.currentSequence(boardId);
+        BoardState state = boardStateCache.getBoard(boardId);
+
+        // Snapping to a level keeps the number of cached grids small while zooming smoothly
+        int level = Math.max(MIN_ZOOM_LEVEL, Math.min(0, (int) Math.floor(Math.log(zoom) / Math.log(2))));
+        double cellSize = clusterCellPixels / Math.pow(2, level);
+
+        return BoardOverview.builder()
+                .clusters(boardStateCache.clusters(boardId, cellSize))
+                .cellSize(cellSize)
+                .totalNodes(state.getNodes().size())
+                .sequence(sequence)
+                .build();
+    }
+}
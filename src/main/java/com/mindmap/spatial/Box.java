@@ -0,0 +1,28 @@
+package com.mindmap.spatial;
+
+public record Box(double minX, double minY, double maxX, double maxY) {
+
+    public static Box around(double centerX, double centerY, double width, double height) {
+        return new Box(centerX - width / 2, centerY - height / 2, centerX + width / 2, centerY + height / 2);
+    }
+
+    public double centerX() {
+        return (minX + maxX) / 2;
+    }
+
+    public double centerY() {
+        return (minY + maxY) / 2;
+    }
+
+    public double width() {
+        return maxX - minX;
+    }
+
+    public double height() {
+        return maxY - minY;
+    }
+
+    public Box grow(double margin) {
+        return new Box(minX - margin, minY - margin, maxX + margin, maxY + margin);
+    }
+}
@@ -0,0 +1,201 @@
+package com.mindmap.spatial;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Region quadtree over axis-aligned boxes, keyed by id. Each box lives in the smallest quad that
+// fully contains it, so a box straddling a split line stays one level up instead of being copied.
+// The root doubles outwards whenever a box lands outside it; boards have no fixed extent.
+// Not thread-safe; the owner serialises access.
+public class QuadTree<T> {
+
+    private static final int SPLIT_THRESHOLD = 16;
+    private static final double MIN_HALF_SIZE = 8;
+    private static final double INITIAL_HALF_SIZE = 1024;
+
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private Quad<T> root = new Quad<>(0, 0, INITIAL_HALF_SIZE);
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void put(String id, T value, double minX, double minY, double maxX, double maxY) {
+        Entry<T> entry = entries.get(id);
+        if (entry != null) {
+            entry.value = value;
+            if (entry.quad.fits(minX, minY, maxX, maxY) && entry.quad.childFor(minX, minY, maxX, maxY) == null) {
+                // Still belongs where it is, typical for small moves
+                entry.setBounds(minX, minY, maxX, maxY);
+                return;
+            }
+            entry.quad.items.remove(entry);
+        } else {
+            entry = new Entry<>(value);
+            entries.put(id, entry);
+        }
+        entry.setBounds(minX, minY, maxX, maxY);
+        while (!root.fits(minX, minY, maxX, maxY)) {
+            grow(minX, minY);
+        }
+        insert(root, entry);
+    }
+
+    public void put(String id, T value, Box box) {
+        put(id, value, box.minX(), box.minY(), box.maxX(), box.maxY());
+    }
+
+    public boolean remove(String id) {
+        Entry<T> entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entry.quad.items.remove(entry);
+        return true;
+    }
+
+    public List<T> query(double minX, double minY, double maxX, double maxY) {
+        List<T> found = new ArrayList<>();
+        query(minX, minY, maxX, maxY, found::add);
+        return found;
+    }
+
+    public void query(Box box, Consumer<T> sink) {
+        query(box.minX(), box.minY(), box.maxX(), box.maxY(), sink);
+    }
+
+    public void query(double minX, double minY, double maxX, double maxY, Consumer<T> sink) {
+        query(root, minX, minY, maxX, maxY, sink);
+    }
+
+    private void query(Quad<T> quad, double minX, double minY, double maxX, double maxY, Consumer<T> sink) {
+        if (!quad.intersects(minX, minY, maxX, maxY)) {
+            return;
+        }
+        for (Entry<T> entry : quad.items) {
+            if (entry.minX <= maxX && entry.maxX >= minX && entry.minY <= maxY && entry.maxY >= minY) {
+                sink.accept(entry.value);
+            }
+        }
+        if (quad.children != null) {
+            for (Quad<T> child : quad.children) {
+                query(child, minX, minY, maxX, maxY, sink);
+            }
+        }
+    }
+
+    private void insert(Quad<T> quad, Entry<T> entry) {
+        while (true) {
+            if (quad.children == null) {
+                quad.add(entry);
+                if (quad.items.size() > SPLIT_THRESHOLD && quad.half / 2 >= MIN_HALF_SIZE) {
+                    split(quad);
+                }
+                return;
+            }
+            Quad<T> child = quad.childFor(entry.minX, entry.minY, entry.maxX, entry.maxY);
+            if (child == null) {
+                quad.add(entry);
+                return;
+            }
+            quad = child;
+        }
+    }
+
+    private void split(Quad<T> quad) {
+        quad.split();
+        List<Entry<T>> items = new ArrayList<>(quad.items);
+        quad.items.clear();
+        for (Entry<T> entry : items) {
+            Quad<T> child = quad.childFor(entry.minX, entry.minY, entry.maxX, entry.maxY);
+            (child != null ? child : quad).add(entry);
+        }
+    }
+
+    // New root twice the size with the old one as the quadrant facing away from (x, y)
+    private void grow(double x, double y) {
+        double half = root.half;
+        double centerX = x < root.centerX ? root.centerX - half : root.centerX + half;
+        double centerY = y < root.centerY ? root.centerY - half : root.centerY + half;
+        Quad<T> grown = new Quad<>(centerX, centerY, half * 2);
+        grown.split();
+        grown.children[grown.indexOf(root.centerX, root.centerY)] = root;
+        root = grown;
+    }
+
+    private static final class Entry<T> {
+        private T value;
+        private double minX;
+        private double minY;
+        private double maxX;
+        private double maxY;
+        private Quad<T> quad;
+
+        Entry(T value) {
+            this.value = value;
+        }
+
+        void setBounds(double minX, double minY, double maxX, double maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+
+    private static final class Quad<T> {
+        private final double centerX;
+        private final double centerY;
+        private final double half;
+        private final List<Entry<T>> items = new ArrayList<>();
+        private Quad<T>[] children;
+
+        Quad(double centerX, double centerY, double half) {
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.half = half;
+        }
+
+        void add(Entry<T> entry) {
+            items.add(entry);
+            entry.quad = this;
+        }
+
+        @SuppressWarnings("unchecked")
+        void split() {
+            double quarter = half / 2;
+            children = new Quad[] {
+                    new Quad<>(centerX - quarter, centerY - quarter, quarter),
+                    new Quad<>(centerX + quarter, centerY - quarter, quarter),
+                    new Quad<>(centerX - quarter, centerY + quarter, quarter),
+                    new Quad<>(centerX + quarter, centerY + quarter, quarter)
+            };
+        }
+
+        int indexOf(double x, double y) {
+            return (x < centerX ? 0 : 1) + (y < centerY ? 0 : 2);
+        }
+
+        // The child that fully contains the box, or null if it straddles a split line
+        Quad<T> childFor(double minX, double minY, double maxX, double maxY) {
+            if (children == null) {
+                return null;
+            }
+            Quad<T> child = children[indexOf(minX, minY)];
+            return child.fits(minX, minY, maxX, maxY) ? child : null;
+        }
+
+        boolean fits(double minX, double minY, double maxX, double maxY) {
+            return minX >= centerX - half && maxX < centerX + half
+                    && minY >= centerY - half && maxY < centerY + half;
+        }
+
+        boolean intersects(double minX, double minY, double maxX, double maxY) {
+            return minX < centerX + half && maxX >= centerX - half
+                    && minY < centerY + half && maxY >= centerY - half;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.mindmap.websocket;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindmap.graphql.subscription.BoardEvent;
+import com.mindmap.service.SubscriptionService;
+import graphql.ExecutionInput;
+import graphql.ParseAndValidate;
+import graphql.ParseAndValidateResult;
+import graphql.language.Argument;
+import graphql.language.AstPrinter;
+import graphql.language.BooleanValue;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.IntValue;
+import graphql.language.OperationDefinition;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.language.VariableReference;
+import graphql.schema.GraphQLSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// boardEvents over graphql-transport-ws without a GraphQL execution per subscriber. Documents are
+// compiled once into an EventProjection, and each event is encoded once per distinct selection;
+// every session with that selection gets the same payload bytes behind its own subscription id.
+// Delivery runs on a virtual thread per subscription, so a slow socket only holds up itself while
+// its ConflatingBuffer absorbs the backlog.
+@Component
+public class BoardEventsWebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable {
+
+    private static final String SUBSCRIPTION_FIELD = "boardEvents";
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_BYTES = 512 * 1024;
+    private static final byte[] FRAME_SUFFIX = "}".getBytes(StandardCharsets.UTF_8);
+
+    private final SubscriptionService subscriptionService;
+    private final GraphQlSource graphQlSource;
+    private final ObjectMapper objectMapper;
+    private final Scheduler deliveryScheduler =
+            Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "board-events-delivery");
+    private final Map<String, ClientSession> sessions = new ConcurrentHashMap<>();
+
+    // Selection (without arguments) -> shared projection and its encoded events
+    private final Cache<String, SharedSelection> selections = Caffeine.newBuilder()
+            .maximumSize(256)
+            .build();
+    private final Counter encodedCounter;
+    private final Counter framesCounter;
+
+    public BoardEventsWebSocketHandler(SubscriptionService subscriptionService,
+                                       GraphQlSource graphQlSource,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry) {
+        this.subscriptionService = subscriptionService;
+        this.graphQlSource = graphQlSource;
+        this.objectMapper = objectMapper;
+        this.encodedCounter = Counter.builder("mindmap.events_ws.encoded")
+                .description("Board events encoded, once per distinct selection")
+                .register(meterRegistry);
+        this.framesCounter = Counter.builder("mindmap.events_ws.frames")
+                .description("Board event frames written to sessions")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of("graphql-transport-ws");
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), new ClientSession(
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_BYTES)));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        ClientSession client = sessions.get(session.getId());
+        Map<String, Object> frame = objectMapper.readValue(message.getPayload(), new TypeReference<>() {
+        });
+        String id = (String) frame.get("id");
+
+        switch (String.valueOf(frame.get("type"))) {
+            case "connection_init" -> client.send(control(Map.of("type", "connection_ack")));
+            case "ping" -> client.send(control(Map.of("type", "pong")));
+            case "subscribe" -> subscribe(session, client, id, (Map<?, ?>) frame.get("payload"));
+            case "complete" -> client.cancel(id);
+            default -> session.close(new CloseStatus(4400, "Unexpected message type"));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ClientSession client = sessions.remove(session.getId());
+        if (client != null) {
+            client.cancelAll();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryScheduler.dispose();
+    }
+
+    private void subscribe(WebSocketSession session, ClientSession client, String id, Map<?, ?> payload) {
+        if (session.getPrincipal() == null) {
+            client.send(error(id, "Unauthorized"));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> variables = payload.get("variables") instanceof Map<?, ?> map
+                ? (Map<String, Object>) map : Map.of();
+        Field field;
+        SharedSelection selection;
+        try {
+            GraphQLSchema schema = graphQlSource.schema();
+            ParseAndValidateResult parsed = ParseAndValidate.parseAndValidate(schema, ExecutionInput.newExecutionInput()
+                    .query((String) payload.get("query"))
+                    .operationName((String) payload.get("operationName"))
+                    .variables(variables)
+                    .build());
+            if (parsed.isFailure()) {
+                client.send(error(id, parsed.getErrors().get(0).getMessage()));
+                return;
+            }
+            field = subscriptionField(parsed, (String) payload.get("operationName"));
+            Map<String, FragmentDefinition> fragments = parsed.getDocument()
+                    .getDefinitionsOfType(FragmentDefinition.class).stream()
+                    .collect(Collectors.toMap(FragmentDefinition::getName, fragment -> fragment));
+            // Arguments differ per client; what gets encoded depends only on the selection
+            String key = AstPrinter.printAstCompact(field.transform(builder -> builder.arguments(List.of())))
+                    + fragments.values().stream().map(AstPrinter::printAstCompact).sorted().collect(Collectors.joining());
+            selection = selections.get(key, k -> new SharedSelection(EventProjection.compile(schema, field, fragments)));
+        } catch (RuntimeException e) {
+            client.send(error(id, e.getMessage()));
+            return;
+        }
+
+        String boardId = (String) argument(field, "boardId", variables);
+        Object since = argument(field, "sinceSequence", variables);
+        Long sinceSequence = since instanceof Number number ? Long.valueOf(number.longValue()) : null;
+        boolean includeCursors = !Boolean.FALSE.equals(argument(field, "includeCursors", variables));
+        String viewerId = (String) argument(field, "viewerId", variables);
+
+        byte[] prefix = framePrefix(id);
+        Disposable subscription = subscriptionService.subscribeToBoardEvents(boardId, sinceSequence, includeCursors, viewerId)
+                .publishOn(deliveryScheduler, 1)
+                .subscribe(
+                        event -> {
+                            client.send(new TextMessage(frame(prefix, selection.encode(event))));
+                            framesCounter.increment();
+                        },
+                        failure -> client.send(error(id, failure.getMessage())),
+                        () -> client.send(control(Map.of("id", id, "type", "complete"))));
+        client.track(id, subscription);
+    }
+
+    private static Field subscriptionField(ParseAndValidateResult parsed, String operationName) {
+        OperationDefinition operation = parsed.getDocument().getDefinitionsOfType(OperationDefinition.class).stream()
+                .filter(definition -> operationName == null || operationName.equals(definition.getName()))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Operation not found"));
+        List<Field> fields = operation.getSelectionSet().getSelectionsOfType(Field.class);
+        if (operation.getOperation() != OperationDefinition.Operation.SUBSCRIPTION
+                || fields.size() != 1 || !SUBSCRIPTION_FIELD.equals(fields.get(0).getName())) {
+            throw new RuntimeException("Only the " + SUBSCRIPTION_FIELD + " subscription is served here");
+        }
+        return fields.get(0);
+    }
+
+    private static Object argument(Field field, String name, Map<String, Object> variables) {
+        Argument argument = field.getArguments().stream()
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+        if (argument == null) {
+            return null;
+        }
+        Value<?> value = argument.getValue();
+        if (value instanceof VariableReference reference) {
+            return variables.get(reference.getName());
+        }
+        if (value instanceof StringValue string) {
+            return string.getValue();
+        }
+        if (value instanceof IntValue integer) {
+            return integer.getValue().longValueExact();
+        }
+        if (value instanceof BooleanValue bool) {
+            return bool.isValue();
+        }
+        return null;
+    }
+
+    // {"id":"<id>","type":"next","payload":  ...shared payload bytes...  }
+    private byte[] framePrefix(String id) {
+        try {
+            return ("{\"id\":" + objectMapper.writeValueAsString(id) + ",\"type\":\"next\",\"payload\":")
+                    .getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode message", e);
+        }
+    }
+
+    private static byte[] frame(byte[] prefix, byte[] payload) {
+        byte[] frame = new byte[prefix.length + payload.length + FRAME_SUFFIX.length];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        System.arraycopy(payload, 0, frame, prefix.length, payload.length);
+        System.arraycopy(FRAME_SUFFIX, 0, frame, prefix.length + payload.length, FRAME_SUFFIX.length);
+        return frame;
+    }
+
+    private TextMessage error(String id, String message) {
+        return control(Map.of("id", id, "type", "error", "payload", List.of(Map.of("message", String.valueOf(message)))));
+    }
+
+    private TextMessage control(Map<String, Object> message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode message", e);
+        }
+    }
+
+    private final class SharedSelection {
+        private final EventProjection projection;
+        // Keyed by event identity; entries go once every subscriber has moved past the event
+        private final Cache<BoardEvent, byte[]> encoded = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(4096)
+                .build();
+
+        SharedSelection(EventProjection projection) {
+            this.projection = projection;
+        }
+
+        byte[] encode(BoardEvent event) {
+            return encoded.get(event, key -> {
+                encodedCounter.increment();
+                return projection.encode(key);
+            });
+        }
+    }
+
+    private static final class ClientSession {
+        private final WebSocketSession session;
+        private final Map<String, Disposable> subscriptions = new ConcurrentHashMap<>();
+
+        ClientSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void send(TextMessage message) {
+            if (!session.isOpen()) {
+                return;
+            }
+            try {
+                session.sendMessage(message);
+            } catch (IOException | RuntimeException e) {
+                // Closed, or over the decorator's send limits (SessionLimitExceededException).
+                // Either way the client is gone; the close callback cleans up its subscriptions.
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException | RuntimeException e) {
+                // Already closing
+            }
+        }
+
+        void track(String id, Disposable subscription) {
+            Disposable previous = subscriptions.put(id, subscription);
+            if (previous != null) {
+                previous.dispose();
+            }
+        }
+
+        void cancel(String id) {
+            Disposable subscription = subscriptions.remove(id);
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+
+        void cancelAll() {
+            subscriptions.values().forEach(Disposable::dispose);
+            subscriptions.clear();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mindmap.websocket;
+
+import com.mindmap.model.UserSummary;
+import com.mindmap.security.MindMapUserDetails;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+// Authenticates the cursor channel once, at the HTTP upgrade
+@Component
+public class CursorHandshakeInterceptor implements HandshakeInterceptor {
+
+    static final String BOARD_ID = "boardId";
+    static final String USER = "user";
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        if (!(request.getPrincipal() instanceof Authentication authentication)
+                || !(authentication.getPrincipal() instanceof MindMapUserDetails principal)) {
+            return false;
+        }
+
+        String boardId = UriComponentsBuilder.fromUri(request.getURI()).build()
+                .getQueryParams().getFirst(BOARD_ID);
+        if (boardId == null || boardId.isBlank()) {
+            return false;
+        }
+
+        attributes.put(BOARD_ID, boardId);
+        attributes.put(USER, new UserSummary(principal.getUserId(), principal.getUsername()));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
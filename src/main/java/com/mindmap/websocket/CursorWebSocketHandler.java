@@ -0,0 +1,217 @@
+package com.mindmap.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindmap.graphql.subscription.CursorBatch;
+import com.mindmap.graphql.subscription.CursorPosition;
+import com.mindmap.model.UserSummary;
+import com.mindmap.service.CursorAggregator;
+import com.mindmap.service.SubscriptionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import reactor.core.Disposable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Binary cursor channel: the board and user are fixed at handshake, so frames only carry coordinates.
+//   client -> server: [float x][float y]                (8 bytes)
+//   server -> client: ([int userIndex][float x][float y])* (12 bytes per cursor, one frame per tick)
+// A JSON text frame maps a user index to a user before its first position, and again when they
+// go idle or leave.
+@Component
+@Slf4j
+public class CursorWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final int CLIENT_FRAME_BYTES = 8;
+    private static final int CURSOR_RECORD_BYTES = 12;
+    private static final int SEND_TIME_LIMIT_MS = 1000;
+    private static final int SEND_BUFFER_BYTES = 16 * 1024;
+
+    private final SubscriptionService subscriptionService;
+    private final CursorAggregator cursorAggregator;
+    private final ObjectMapper objectMapper;
+    private final Map<String, BoardPresence> boards = new ConcurrentHashMap<>();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+
+    public CursorWebSocketHandler(SubscriptionService subscriptionService,
+                                  CursorAggregator cursorAggregator,
+                                  ObjectMapper objectMapper) {
+        this.subscriptionService = subscriptionService;
+        this.cursorAggregator = cursorAggregator;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        String boardId = (String) session.getAttributes().get(CursorHandshakeInterceptor.BOARD_ID);
+        UserSummary user = (UserSummary) session.getAttributes().get(CursorHandshakeInterceptor.USER);
+
+        // Slow peers drop frames instead of holding up the publisher's thread
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS,
+                SEND_BUFFER_BYTES, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        Peer peer = new Peer(boardId, user, out);
+        boards.compute(boardId, (id, presence) -> {
+            BoardPresence joined = presence != null ? presence : new BoardPresence();
+            joined.join(peer);
+            return joined;
+        });
+        peer.subscription = subscriptionService.subscribeToCursorBatches(boardId)
+                .subscribe(peer::deliver);
+        peers.put(session.getId(), peer);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        Peer peer = peers.get(session.getId());
+        ByteBuffer payload = message.getPayload();
+        if (peer == null || payload.remaining() < CLIENT_FRAME_BYTES) {
+            return;
+        }
+        cursorAggregator.submit(peer.boardId, CursorPosition.builder()
+                .userId(peer.user.getId())
+                .username(peer.user.getUsername())
+                .x((double) payload.getFloat())
+                .y((double) payload.getFloat())
+                .sentAt(System.currentTimeMillis())
+                .build());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Peer peer = peers.remove(session.getId());
+        if (peer == null) {
+            return;
+        }
+        peer.subscription.dispose();
+        boards.computeIfPresent(peer.boardId, (id, presence) -> presence.leave(peer) ? null : presence);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("Cursor channel error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    private String presenceFrame(String type, int index, UserSummary user) {
+        try {
+            return objectMapper.writeValueAsString(user == null
+                    ? Map.of("type", type, "index", index)
+                    : Map.of("type", type, "index", index, "userId", user.getId(), "username", user.getUsername()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode cursor presence", e);
+        }
+    }
+
+    private static void send(WebSocketSession session, WebSocketMessage<?> message) {
+        try {
+            session.sendMessage(message);
+        } catch (IOException | IllegalStateException e) {
+            // Closed or overflowing; the close callback cleans up
+        }
+    }
+
+    // Users currently on a board with a stable small index each
+    private final class BoardPresence {
+        private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+        private final Map<String, Integer> sessionCounts = new ConcurrentHashMap<>();
+        private final Map<String, Peer> members = new ConcurrentHashMap<>();
+        private int nextIndex;
+
+        void join(Peer peer) {
+            peer.presence = this;
+            sessionCounts.merge(peer.user.getId(), 1, Integer::sum);
+            members.put(peer.session.getId(), peer);
+        }
+
+        synchronized int indexOf(String userId) {
+            return indexes.computeIfAbsent(userId, id -> nextIndex++);
+        }
+
+        Integer existingIndex(String userId) {
+            return indexes.get(userId);
+        }
+
+        // Returns true when the board has no connected sessions left
+        synchronized boolean leave(Peer peer) {
+            members.remove(peer.session.getId());
+            String userId = peer.user.getId();
+            Integer remaining = sessionCounts.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+            if (remaining == null) {
+                Integer index = indexes.remove(userId);
+                if (index != null) {
+                    String frame = presenceFrame("leave", index, null);
+                    members.values().forEach(member -> member.forget(index, frame));
+                }
+            }
+            return members.isEmpty();
+        }
+    }
+
+    private final class Peer {
+        private final String boardId;
+        private final UserSummary user;
+        private final WebSocketSession session;
+        private BoardPresence presence;
+        // Indexes this session has already been told about
+        private final BitSet announced = new BitSet();
+        private Disposable subscription;
+
+        Peer(String boardId, UserSummary user, WebSocketSession session) {
+            this.boardId = boardId;
+            this.user = user;
+            this.session = session;
+        }
+
+        void deliver(CursorBatch batch) {
+            ByteBuffer frame = ByteBuffer.allocate(batch.getCursors().size() * CURSOR_RECORD_BYTES);
+            for (CursorPosition position : batch.getCursors()) {
+                if (user.getId().equals(position.getUserId())) {
+                    continue;
+                }
+                int index = presence.indexOf(position.getUserId());
+                announce(index, position);
+                frame.putInt(index)
+                        .putFloat(position.getX().floatValue())
+                        .putFloat(position.getY().floatValue());
+            }
+            if (frame.position() > 0) {
+                send(session, new BinaryMessage(frame.flip()));
+            }
+
+            for (String userId : batch.getDeparted()) {
+                Integer index = presence.existingIndex(userId);
+                if (index != null && !user.getId().equals(userId)) {
+                    forget(index, presenceFrame("idle", index, null));
+                }
+            }
+        }
+
+        private void announce(int index, CursorPosition position) {
+            synchronized (announced) {
+                if (!announced.get(index)) {
+                    send(session, new TextMessage(presenceFrame("join", index,
+                            new UserSummary(position.getUserId(), position.getUsername()))));
+                    announced.set(index);
+                }
+            }
+        }
+
+        void forget(int index, String frame) {
+            synchronized (announced) {
+                if (announced.get(index)) {
+                    announced.clear(index);
+                    send(session, new TextMessage(frame));
+                }
+            }
+        }
+    }
+}
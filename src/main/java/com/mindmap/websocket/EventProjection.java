@@ -0,0 +1,201 @@
+package com.mindmap.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A boardEvents selection set compiled once into a plan that writes events straight to JSON.
+// Everything under boardEvents is plain data, so no resolvers are needed; users only carry their
+// embedded summary, and selecting more than that is not supported on this path.
+class EventProjection {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Set<String> USER_SUMMARY_FIELDS = Set.of("id", "username", "__typename");
+
+    private record Plan(String responseKey, String fieldName, String onType, String typeName, List<Plan> children) {
+    }
+
+    private final Plan root;
+
+    private EventProjection(Plan root) {
+        this.root = root;
+    }
+
+    static EventProjection compile(GraphQLSchema schema, Field rootField, Map<String, FragmentDefinition> fragments) {
+        GraphQLFieldDefinition definition = schema.getSubscriptionType().getFieldDefinition(rootField.getName());
+        return new EventProjection(plan(schema, rootField, null, definition, fragments));
+    }
+
+    // {"data":{"<responseKey>":{...}}}
+    byte[] encode(Object event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (JsonGenerator json = JSON.createGenerator(bytes)) {
+            json.writeStartObject();
+            json.writeFieldName("data");
+            json.writeStartObject();
+            json.writeFieldName(root.responseKey());
+            write(json, event, root);
+            json.writeEndObject();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode board event", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Plan plan(GraphQLSchema schema, Field field, String onType,
+                             GraphQLFieldDefinition definition, Map<String, FragmentDefinition> fragments) {
+        String responseKey = responseKeyOf(field);
+        if (field.getSelectionSet() == null) {
+            return new Plan(responseKey, field.getName(), onType, null, null);
+        }
+
+        GraphQLType type = GraphQLTypeUtil.unwrapAll(definition.getType());
+        String typeName = type instanceof GraphQLObjectType objectType ? objectType.getName() : null;
+        List<Plan> children = new ArrayList<>();
+        collect(schema, field.getSelectionSet(), typeName, type, fragments, children);
+
+        if ("User".equals(typeName)) {
+            children.stream()
+                    .filter(child -> !USER_SUMMARY_FIELDS.contains(child.fieldName()))
+                    .findFirst()
+                    .ifPresent(child -> {
+                        throw new IllegalArgumentException("User." + child.fieldName() + " is not available on this endpoint");
+                    });
+        }
+        return new Plan(responseKey, field.getName(), onType, typeName, merge(children));
+    }
+
+    private static void collect(GraphQLSchema schema, SelectionSet selectionSet, String onType, GraphQLType parentType,
+                                Map<String, FragmentDefinition> fragments, List<Plan> into) {
+        for (Selection<?> selection : selectionSet.getSelections()) {
+            if (hasDirectives(selection)) {
+                throw new IllegalArgumentException("Directives are not supported on this endpoint");
+            }
+            if (selection instanceof Field field) {
+                if ("__typename".equals(field.getName())) {
+                    into.add(new Plan(responseKeyOf(field), "__typename", onType, null, null));
+                    continue;
+                }
+                GraphQLFieldDefinition definition = fieldOf(schema, parentType, onType, field.getName());
+                into.add(plan(schema, field, onType, definition, fragments));
+            } else if (selection instanceof InlineFragment fragment) {
+                String condition = fragment.getTypeCondition() != null ? fragment.getTypeCondition().getName() : null;
+                collect(schema, fragment.getSelectionSet(), narrow(schema, onType, condition), parentType, fragments, into);
+            } else if (selection instanceof FragmentSpread spread) {
+                FragmentDefinition fragment = fragments.get(spread.getName());
+                String condition = fragment.getTypeCondition().getName();
+                collect(schema, fragment.getSelectionSet(), narrow(schema, onType, condition), parentType, fragments, into);
+            }
+        }
+    }
+
+    private static boolean hasDirectives(Selection<?> selection) {
+        return (selection instanceof Field field && !field.getDirectives().isEmpty())
+                || (selection instanceof InlineFragment fragment && !fragment.getDirectives().isEmpty())
+                || (selection instanceof FragmentSpread spread && !spread.getDirectives().isEmpty());
+    }
+
+    // Only concrete object types restrict a selection; a union or interface condition matches anything
+    private static String narrow(GraphQLSchema schema, String current, String condition) {
+        return condition != null && schema.getType(condition) instanceof GraphQLObjectType ? condition : current;
+    }
+
+    private static GraphQLFieldDefinition fieldOf(GraphQLSchema schema, GraphQLType parentType, String onType, String name) {
+        GraphQLType container = onType != null ? schema.getType(onType) : parentType;
+        return ((GraphQLFieldsContainer) container).getFieldDefinition(name);
+    }
+
+    // The same response key can appear in several fragments; their sub-selections combine
+    private static List<Plan> merge(List<Plan> plans) {
+        Map<String, Plan> merged = new LinkedHashMap<>();
+        for (Plan plan : plans) {
+            String key = plan.onType() + ":" + plan.responseKey();
+            Plan existing = merged.get(key);
+            if (existing == null || existing.children() == null) {
+                merged.putIfAbsent(key, plan);
+                continue;
+            }
+            List<Plan> children = new ArrayList<>(existing.children());
+            children.addAll(plan.children());
+            merged.put(key, new Plan(existing.responseKey(), existing.fieldName(), existing.onType(),
+                    existing.typeName(), merge(children)));
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private static String responseKeyOf(Field field) {
+        return field.getAlias() != null ? field.getAlias() : field.getName();
+    }
+
+    private void write(JsonGenerator json, Object value, Plan plan) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Iterable<?> items) {
+            json.writeStartArray();
+            for (Object item : items) {
+                write(json, item, plan);
+            }
+            json.writeEndArray();
+        } else if (plan.children() != null) {
+            writeObject(json, value, plan);
+        } else {
+            writeScalar(json, value);
+        }
+    }
+
+    private void writeObject(JsonGenerator json, Object value, Plan plan) throws IOException {
+        // Union members are named after their classes, the same rule the GraphQL runtime uses
+        String typeName = plan.typeName() != null ? plan.typeName() : value.getClass().getSimpleName();
+        BeanWrapperImpl bean = new BeanWrapperImpl(value);
+        Set<String> written = new HashSet<>();
+        json.writeStartObject();
+        for (Plan child : plan.children()) {
+            if ((child.onType() != null && !child.onType().equals(typeName)) || !written.add(child.responseKey())) {
+                continue;
+            }
+            json.writeFieldName(child.responseKey());
+            if ("__typename".equals(child.fieldName())) {
+                json.writeString(typeName);
+            } else {
+                write(json, bean.getPropertyValue(child.fieldName()), child);
+            }
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeScalar(JsonGenerator json, Object value) throws IOException {
+        if (value instanceof Double || value instanceof Float) {
+            json.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Number number) {
+            json.writeNumber(number.longValue());
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else if (value instanceof Enum<?> constant) {
+            json.writeString(constant.name());
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+}
@@ -30,7 +30,8 @@ const locallyUpdatedEdges = new Set();
 
 function connectWebSocket() {
     const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
-    const wsUrl = `${protocol}//${window.location.host}/graphql-ws`;
+    // Board events have their own endpoint that encodes each event once for all viewers
+    const wsUrl = `${protocol}//${window.location.host}/board-events-ws`;
     
     console.log('Connecting to WebSocket:', wsUrl);
     ws = new WebSocket(wsUrl, 'graphql-transport-ws');
@@ -47,14 +48,8 @@ function connectWebSocket() {
         
         if (message.type === 'connection_ack') {
             console.log('✅ WebSocket connection acknowledged');
-            // Subscribe to node and edge changes
-            subscribeToNodeChanges();
-            subscribeToEdgeChanges();
-            
-            // Subscribe to cursor movements
-            if (typeof subscribeToCursorMovements === 'function') {
-                subscribeToCursorMovements(boardId);
-            }
+            // One ordered subscription for every node, edge and board change
+            subscribeToBoardEvents();
         } else if (message.type === 'next' && message.id) {
             console.log('📥 Subscription data received for ID:', message.id);
             const handler = subscriptions.get(message.id);
@@ -94,163 +89,253 @@ function subscribe(query, variables, handler) {
     return id;
 }
 
-function subscribeToNodeChanges() {
-    const query = `
-        subscription NodeChanged($boardId: ID!) {
-            nodeChanged(boardId: $boardId) {
-                node {
-                    id
-                    label
-                    x
-                    y
-                    color
-                    shape
-                    size
-                    width
-                    height
-                    fontSize
-                    bold
-                    italic
-                }
-                nodeId
-                changeType
-            }
+const NODE_STYLE_FIELDS = ['label', 'color', 'shape', 'size', 'width', 'height', 'fontSize', 'bold', 'italic'];
+const EDGE_STYLE_FIELDS = ['label', 'color'];
+
+// Picks the fields a delta actually carries; null means untouched
+function changedFields(delta, fields) {
+    const data = {};
+    fields.forEach(field => {
+        if (delta[field] != null) {
+            data[field] = delta[field];
+        }
+    });
+    return data;
+}
+
+function applyNodeChange(change) {
+    if (change.changeType === 'CREATED' && change.node) {
+        // Skip if we just created this node locally
+        if (locallyCreatedNodes.has(change.node.id)) {
+            locallyCreatedNodes.delete(change.node.id);
+            return;
         }
-    `;
-    
-    subscribe(query, { boardId }, (data) => {
-        const change = data.nodeChanged;
-        console.log('Node change received:', change);
         
-        if (change.changeType === 'CREATED' && change.node) {
-            // Skip if we just created this node locally
-            if (locallyCreatedNodes.has(change.node.id)) {
-                locallyCreatedNodes.delete(change.node.id);
-                return;
-            }
+        // Add new node if it doesn't exist
+        if (!cy.getElementById(change.node.id).length) {
+            cy.add({
+                group: 'nodes',
+                data: {
+                    id: change.node.id,
+                    label: change.node.label,
+                    color: change.node.color || '#3498db',
+                    shape: change.node.shape || 'ellipse',
+                    size: change.node.size || 50,
+                    width: change.node.width || 80,
+                    height: change.node.height || 50,
+                    fontSize: change.node.fontSize || 14,
+                    bold: change.node.bold || false,
+                    italic: change.node.italic || false
+                },
+                position: { x: change.node.x, y: change.node.y }
+            });
+        }
+    } else if (change.changeType === 'UPDATED' && change.delta) {
+        // Skip if we just updated this node locally (within last 500ms)
+        if (locallyUpdatedNodes.has(change.nodeId)) {
+            console.log('⏭️ Skipping own update for node:', change.nodeId);
+            locallyUpdatedNodes.delete(change.nodeId);
+            return;
+        }
+        
+        // Update existing node; the delta only carries fields that changed
+        const node = cy.getElementById(change.nodeId);
+        if (node.length) {
+            console.log('🔄 Updating node from subscription:', change.delta);
             
-            // Add new node if it doesn't exist
-            if (!cy.getElementById(change.node.id).length) {
-                cy.add({
-                    group: 'nodes',
-                    data: {
-                        id: change.node.id,
-                        label: change.node.label,
-                        color: change.node.color || '#3498db',
-                        shape: change.node.shape || 'ellipse',
-                        size: change.node.size || 50,
-                        width: change.node.width || 80,
-                        height: change.node.height || 50,
-                        fontSize: change.node.fontSize || 14,
-                        bold: change.node.bold || false,
-                        italic: change.node.italic || false
-                    },
-                    position: { x: change.node.x, y: change.node.y }
-                });
-            }
-        } else if (change.changeType === 'UPDATED' && change.node) {
-            // Skip if we just updated this node locally (within last 500ms)
-            if (locallyUpdatedNodes.has(change.node.id)) {
-                console.log('⏭️ Skipping own update for node:', change.node.id);
-                locallyUpdatedNodes.delete(change.node.id);
-                return;
-            }
+            node.data(changedFields(change.delta, NODE_STYLE_FIELDS));
             
-            // Update existing node
-            const node = cy.getElementById(change.node.id);
-            if (node.length) {
-                console.log('🔄 Updating node from subscription:', change.node);
-                
-                // Update all data at once
-                node.data({
-                    label: change.node.label,
-                    color: change.node.color,
-                    shape: change.node.shape,
-                    size: change.node.size,
-                    width: change.node.width,
-                    height: change.node.height,
-                    fontSize: change.node.fontSize,
-                    bold: change.node.bold,
-                    italic: change.node.italic
+            if (change.delta.x != null || change.delta.y != null) {
+                const position = node.position();
+                node.position({
+                    x: change.delta.x != null ? change.delta.x : position.x,
+                    y: change.delta.y != null ? change.delta.y : position.y
                 });
-                
-                // Update position
-                node.position({ x: change.node.x, y: change.node.y });
-                
-                // Force complete style refresh by removing and re-adding style
-                node.removeStyle();
-                
-                console.log('✅ Node updated via subscription:', change.node.id);
             }
-        } else if (change.changeType === 'DELETED') {
-            // Remove deleted node
-            cy.getElementById(change.nodeId).remove();
+            
+            // Force complete style refresh by removing and re-adding style
+            node.removeStyle();
+            
+            console.log('✅ Node updated via subscription:', change.nodeId);
+        } else if (viewportLoadingEnabled) {
+            // Moved into view from an area we never loaded; fetch it whole
+            scheduleViewportLoad();
         }
-    });
+    } else if (change.changeType === 'DELETED') {
+        // Remove deleted node
+        cy.getElementById(change.nodeId).remove();
+    }
 }
 
-function subscribeToEdgeChanges() {
+function applyEdgeChange(change) {
+    if (change.changeType === 'CREATED' && change.edge) {
+        // Skip if we just created this edge locally
+        if (locallyCreatedEdges.has(change.edge.id)) {
+            locallyCreatedEdges.delete(change.edge.id);
+            return;
+        }
+        
+        // Add new edge if it doesn't exist
+        if (!cy.getElementById(change.edge.id).length) {
+            cy.add({
+                group: 'edges',
+                data: {
+                    id: change.edge.id,
+                    source: change.edge.source,
+                    target: change.edge.target,
+                    label: change.edge.label || '',
+                    color: change.edge.color || '#95a5a6'
+                }
+            });
+        }
+    } else if (change.changeType === 'UPDATED' && change.delta) {
+        // Update existing edge
+        const edge = cy.getElementById(change.edgeId);
+        if (edge.length) {
+            edge.data(changedFields(change.delta, EDGE_STYLE_FIELDS));
+            
+            // Force style recalculation
+            edge.style({});
+            
+            console.log('Edge updated via subscription:', change.edgeId);
+        }
+    } else if (change.changeType === 'DELETED') {
+        // Remove deleted edge
+        cy.getElementById(change.edgeId).remove();
+    }
+}
+
+const NODE_CHANGE_FIELDS = `
+    node {
+        id
+        label
+        x
+        y
+        color
+        shape
+        size
+        width
+        height
+        fontSize
+        bold
+        italic
+    }
+    delta {
+        id
+        version
+        label
+        x
+        y
+        color
+        shape
+        size
+        width
+        height
+        fontSize
+        bold
+        italic
+    }
+    nodeId
+    changeType
+`;
+
+const EDGE_CHANGE_FIELDS = `
+    edge {
+        id
+        source
+        target
+        label
+        color
+    }
+    delta {
+        id
+        version
+        label
+        color
+    }
+    edgeId
+    changeType
+`;
+
+let lastBoardSequence = null;
+let conflatedSinceLastSequence = false;
+// Identifies this tab's viewport to the server so it only sends changes near it
+const viewerId = crypto.randomUUID();
+
+function subscribeToBoardEvents() {
+    // Cursors come over the dedicated cursor channel
     const query = `
-        subscription EdgeChanged($boardId: ID!) {
-            edgeChanged(boardId: $boardId) {
-                edge {
-                    id
-                    source
-                    target
-                    label
-                    color
+        subscription BoardEvents($boardId: ID!, $sinceSequence: Long, $viewerId: ID) {
+            boardEvents(boardId: $boardId, sinceSequence: $sinceSequence, includeCursors: false, viewerId: $viewerId) {
+                sequence
+                conflated
+                payload {
+                    __typename
+                    ... on NodeChange { ${NODE_CHANGE_FIELDS} }
+                    ... on EdgeChange { ${EDGE_CHANGE_FIELDS} }
+                    ... on BoardOperationsBatch {
+                        nodeChanges { ${NODE_CHANGE_FIELDS} }
+                        edgeChanges { ${EDGE_CHANGE_FIELDS} }
+                    }
+                    ... on ResyncRequired { currentSequence }
+                    ... on BoardUpdate {
+                        updateType
+                        board { id title }
+                    }
                 }
-                edgeId
-                changeType
             }
         }
     `;
     
-    subscribe(query, { boardId }, (data) => {
-        const change = data.edgeChanged;
-        console.log('Edge change received:', change);
-        
-        if (change.changeType === 'CREATED' && change.edge) {
-            // Skip if we just created this edge locally
-            if (locallyCreatedEdges.has(change.edge.id)) {
-                locallyCreatedEdges.delete(change.edge.id);
-                return;
-            }
-            
-            // Add new edge if it doesn't exist
-            if (!cy.getElementById(change.edge.id).length) {
-                cy.add({
-                    group: 'edges',
-                    data: {
-                        id: change.edge.id,
-                        source: change.edge.source,
-                        target: change.edge.target,
-                        label: change.edge.label || '',
-                        color: change.edge.color || '#95a5a6'
-                    }
-                });
-            }
-        } else if (change.changeType === 'UPDATED' && change.edge) {
-            // Update existing edge
-            const edge = cy.getElementById(change.edge.id);
-            if (edge.length) {
-                cy.batch(() => {
-                    edge.data('label', change.edge.label);
-                    edge.data('color', change.edge.color);
-                });
-                
-                // Force style recalculation
-                edge.style({});
-                
-                console.log('Edge updated via subscription:', change.edge.id);
+    // After a reconnect this replays whatever was missed while offline
+    subscribe(query, { boardId, sinceSequence: lastBoardSequence, viewerId }, (data) => {
+        const event = data.boardEvents;
+        if (event.payload.__typename === 'ResyncRequired') {
+            console.warn('⚠️ Missed too many board events, reloading board');
+            lastBoardSequence = event.sequence;
+            resyncBoard();
+            return;
+        }
+        if (event.conflated) {
+            // Merged from several changes while we were behind; keep resuming from the last in-order event
+            conflatedSinceLastSequence = true;
+        } else {
+            if (!conflatedSinceLastSequence && lastBoardSequence !== null && event.sequence > lastBoardSequence + 1) {
+                console.warn('⚠️ Missed board events', lastBoardSequence + 1, 'to', event.sequence - 1);
             }
-        } else if (change.changeType === 'DELETED') {
-            // Remove deleted edge
-            cy.getElementById(change.edgeId).remove();
+            conflatedSinceLastSequence = false;
+            lastBoardSequence = event.sequence;
         }
+        applyBoardEvent(event.payload);
     });
 }
 
+function applyBoardEvent(payload) {
+    switch (payload.__typename) {
+        case 'NodeChange':
+            applyNodeChange(payload);
+            break;
+        case 'EdgeChange':
+            applyEdgeChange(payload);
+            break;
+        case 'BoardOperationsBatch':
+            // Nodes first so new edges always find their endpoints
+            cy.batch(() => {
+                payload.nodeChanges.forEach(applyNodeChange);
+                payload.edgeChanges.forEach(applyEdgeChange);
+            });
+            break;
+        case 'BoardUpdate':
+            if (payload.updateType === 'UPDATED' && payload.board) {
+                const heading = document.querySelector('.board-info h1');
+                if (heading) {
+                    heading.textContent = payload.board.title;
+                }
+            }
+            break;
+    }
+}
+
 // Initialize Cytoscape
 let cy;
 let connectMode = false;
@@ -350,11 +435,11 @@ function initCytoscape() {
         }
     });
     
-    // Update node position on drag
+    // Update node position on drag (multi-select drags are sent as one batch)
     cy.on('dragfree', 'node', function(evt) {
         const node = evt.target;
         const position = node.position();
-        updateNode(node.id(), { x: position.x, y: position.y });
+        queueNodeMove(node.id(), position.x, position.y);
     });
     
     // Update toolbar when node is selected
@@ -638,46 +723,131 @@ function zoomReset() {
 }
 
 // Load board data
-async function loadBoardData() {
-    const nodesQuery = `
-        query GetNodes($boardId: ID!) {
-            nodes(boardId: $boardId) {
-                id
-                label
-                x
-                y
-                color
-                shape
-                size
-                width
-                height
-                fontSize
-                bold
-                italic
+async function resyncBoard() {
+    cy.elements().remove();
+    await loadBoardData({ fit: false });
+}
+
+// Margin (canvas units) loaded around the visible area so short pans need no request
+const VIEWPORT_MARGIN = 500;
+let viewportLoadingEnabled = false;
+let viewportLoadTimer = null;
+
+async function loadBoardData({ fit = true } = {}) {
+    try {
+        const slice = await fetchViewportSlice();
+        if (lastBoardSequence === null || slice.sequence > lastBoardSequence) {
+            lastBoardSequence = slice.sequence;
+        }
+        addSliceElements(slice);
+        
+        if (slice.nodes.length >= slice.totalNodes) {
+            // Small board: everything is here already
+            if (fit) {
+                cy.fit();
             }
+        } else if (!viewportLoadingEnabled) {
+            // Large board: fetch the rest as the user pans and zooms
+            viewportLoadingEnabled = true;
+            cy.on('viewport', scheduleViewportLoad);
+        }
+        if (viewportLoadingEnabled) {
+            reportViewport();
+        }
+    } catch (error) {
+        console.error('Error loading board data:', error);
+        alert('Error loading board data: ' + error.message);
+    }
+}
+
+function scheduleViewportLoad() {
+    clearTimeout(viewportLoadTimer);
+    viewportLoadTimer = setTimeout(async () => {
+        try {
+            reportViewport();
+            addSliceElements(await fetchViewportSlice());
+        } catch (error) {
+            console.error('Error loading viewport:', error);
+        }
+    }, 150);
+}
+
+// Changes outside this area (plus the margin) are no longer pushed to us
+function reportViewport() {
+    const mutation = `
+        mutation UpdateViewport($boardId: ID!, $viewerId: ID!, $minX: Float!, $minY: Float!, $maxX: Float!, $maxY: Float!, $margin: Float) {
+            updateViewport(boardId: $boardId, viewerId: $viewerId, minX: $minX, minY: $minY, maxX: $maxX, maxY: $maxY, margin: $margin)
         }
     `;
     
-    const edgesQuery = `
-        query GetEdges($boardId: ID!) {
-            edges(boardId: $boardId) {
-                id
-                source
-                target
-                label
-                color
+    const extent = cy.extent();
+    graphqlRequest(mutation, {
+        boardId,
+        viewerId,
+        minX: extent.x1,
+        minY: extent.y1,
+        maxX: extent.x2,
+        maxY: extent.y2,
+        margin: VIEWPORT_MARGIN
+    }).catch(error => console.error('Error reporting viewport:', error));
+}
+
+async function fetchViewportSlice() {
+    const viewportQuery = `
+        query NodesInViewport($boardId: ID!, $minX: Float!, $minY: Float!, $maxX: Float!, $maxY: Float!, $margin: Float) {
+            nodesInViewport(boardId: $boardId, minX: $minX, minY: $minY, maxX: $maxX, maxY: $maxY, margin: $margin) {
+                nodes {
+                    id
+                    label
+                    x
+                    y
+                    color
+                    shape
+                    size
+                    width
+                    height
+                    fontSize
+                    bold
+                    italic
+                }
+                edges {
+                    id
+                    source
+                    target
+                    label
+                    color
+                }
+                totalNodes
+                sequence
             }
         }
     `;
     
-    try {
-        const [nodesData, edgesData] = await Promise.all([
-            graphqlRequest(nodesQuery, { boardId }),
-            graphqlRequest(edgesQuery, { boardId })
-        ]);
-        
-        // Add nodes
-        nodesData.nodes.forEach(node => {
+    const extent = cy.extent();
+    const data = await graphqlRequest(viewportQuery, {
+        boardId,
+        minX: extent.x1,
+        minY: extent.y1,
+        maxX: extent.x2,
+        maxY: extent.y2,
+        margin: VIEWPORT_MARGIN
+    });
+    return data.nodesInViewport;
+}
+
+// Adds whatever the graph does not have yet and refreshes shown nodes, which may have changed
+// while they were outside the area the server kept us posted about
+function addSliceElements(slice) {
+    cy.batch(() => {
+        slice.nodes.forEach(node => {
+            const existing = cy.getElementById(node.id);
+            if (existing.length) {
+                if (!existing.grabbed()) {
+                    existing.data(changedFields(node, NODE_STYLE_FIELDS));
+                    existing.position({ x: node.x, y: node.y });
+                }
+                return;
+            }
             cy.add({
                 group: 'nodes',
                 data: {
@@ -696,8 +866,10 @@ async function loadBoardData() {
             });
         });
         
-        // Add edges
-        edgesData.edges.forEach(edge => {
+        slice.edges.forEach(edge => {
+            if (cy.getElementById(edge.id).length) {
+                return;
+            }
             cy.add({
                 group: 'edges',
                 data: {
@@ -709,12 +881,7 @@ async function loadBoardData() {
                 }
             });
         });
-        
-        cy.fit();
-    } catch (error) {
-        console.error('Error loading board data:', error);
-        alert('Error loading board data: ' + error.message);
-    }
+    });
 }
 
 // Create node
@@ -800,18 +967,17 @@ async function updateNode(nodeId, updates) {
     const mutation = `
         mutation UpdateNode($id: ID!, $input: UpdateNodeInput!) {
             updateNode(id: $id, input: $input) {
-                id
-                label
-                x
-                y
-                color
-                shape
-                size
-                width
-                height
-                fontSize
-                bold
-                italic
+                __typename
+                ... on Node {
+                    id
+                    version
+                }
+                ... on NodeConflict {
+                    current {
+                        id
+                        version
+                    }
+                }
             }
         }
     `;
@@ -838,6 +1004,65 @@ async function updateNode(nodeId, updates) {
     }
 }
 
+// Collect the dragfree events of one multi-node drag into a single request
+const pendingMoves = new Map();
+let pendingMovesTimer = null;
+
+function queueNodeMove(nodeId, x, y) {
+    pendingMoves.set(nodeId, { x, y });
+    if (!pendingMovesTimer) {
+        pendingMovesTimer = setTimeout(flushNodeMoves, 0);
+    }
+}
+
+function flushNodeMoves() {
+    const moves = Array.from(pendingMoves.entries());
+    pendingMoves.clear();
+    pendingMovesTimer = null;
+    
+    if (moves.length === 1) {
+        const [nodeId, position] = moves[0];
+        updateNode(nodeId, position);
+        return;
+    }
+    
+    moves.forEach(([nodeId]) => {
+        locallyUpdatedNodes.add(nodeId);
+        setTimeout(() => locallyUpdatedNodes.delete(nodeId), 1000);
+    });
+    applyBoardOperations(moves.map(([nodeId, position]) => ({
+        type: 'UPDATE_NODE',
+        id: nodeId,
+        updateNode: position
+    })));
+}
+
+// Apply several node/edge operations in one round trip
+async function applyBoardOperations(ops) {
+    const mutation = `
+        mutation ApplyBoardOperations($boardId: ID!, $ops: [BoardOp!]!) {
+            applyBoardOperations(boardId: $boardId, ops: $ops) {
+                index
+                id
+                success
+                error
+            }
+        }
+    `;
+    
+    try {
+        const data = await graphqlRequest(mutation, { boardId, ops });
+        const failures = data.applyBoardOperations.filter(result => !result.success);
+        if (failures.length) {
+            console.error('❌ Some board operations failed:', failures);
+        }
+        return data.applyBoardOperations;
+    } catch (error) {
+        console.error('❌ Error applying board operations:', error);
+        return [];
+    }
+}
+
 // Create edge
 async function createEdge(sourceId, targetId) {
     const mutation = `
@@ -893,16 +1118,17 @@ async function createEdge(sourceId, targetId) {
 // Delete selected elements
 async function deleteSelected() {
     const selected = cy.$(':selected');
+    if (!selected.length) return;
     
-    for (const element of selected) {
-        if (element.isNode()) {
-            await deleteNode(element.id());
-        } else if (element.isEdge()) {
-            await deleteEdge(element.id());
-        }
-    }
+    // Edges attached to a deleted node are removed server-side with it
+    const deletedNodes = selected.nodes();
+    const ops = deletedNodes.map(node => ({ type: 'DELETE_NODE', id: node.id() }));
+    selected.edges()
+        .filter(edge => !deletedNodes.contains(edge.source()) && !deletedNodes.contains(edge.target()))
+        .forEach(edge => ops.push({ type: 'DELETE_EDGE', id: edge.id() }));
     
     selected.remove();
+    await applyBoardOperations(ops);
 }
 
 async function deleteNode(nodeId) {
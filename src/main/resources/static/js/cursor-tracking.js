@@ -16,6 +16,8 @@ function initCursorTracking(cy, boardId) {
     cursorContainer.style.pointerEvents = 'none';
     cursorContainer.style.zIndex = '1000';
     cy.container().appendChild(cursorContainer);
+
+    connectCursorChannel(boardId);
     
     // Track mouse movement
     const cyContainer = cy.container();
@@ -45,7 +47,74 @@ function initCursorTracking(cy, boardId) {
     });
 }
 
+// Dedicated binary cursor channel; the GraphQL mutation is only a fallback while it is down
+let cursorSocket = null;
+let cursorReconnectDelay = 1000;
+const cursorUsers = new Map(); // user index -> { userId, username }
+
+function connectCursorChannel(boardId) {
+    const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+    const socket = new WebSocket(`${protocol}//${window.location.host}/cursor-ws?boardId=${encodeURIComponent(boardId)}`);
+    socket.binaryType = 'arraybuffer';
+
+    socket.onopen = () => {
+        cursorSocket = socket;
+        cursorReconnectDelay = 1000;
+    };
+
+    socket.onmessage = (event) => {
+        if (typeof event.data === 'string') {
+            handleCursorPresence(JSON.parse(event.data));
+            return;
+        }
+        // One frame per server tick: ([int32 userIndex][float32 x][float32 y])*
+        const view = new DataView(event.data);
+        for (let offset = 0; offset + 12 <= view.byteLength; offset += 12) {
+            const user = cursorUsers.get(view.getInt32(offset));
+            if (user) {
+                updateRemoteCursor({ ...user, x: view.getFloat32(offset + 4), y: view.getFloat32(offset + 8) });
+            }
+        }
+    };
+
+    socket.onclose = () => {
+        cursorSocket = null;
+        cursorUsers.clear();
+        setTimeout(() => connectCursorChannel(boardId), cursorReconnectDelay);
+        cursorReconnectDelay = Math.min(cursorReconnectDelay * 2, 30000);
+    };
+}
+
+function handleCursorPresence(message) {
+    if (message.type === 'join') {
+        cursorUsers.set(message.index, { userId: message.userId, username: message.username });
+    } else if (message.type === 'leave' || message.type === 'idle') {
+        const user = cursorUsers.get(message.index);
+        cursorUsers.delete(message.index);
+        if (user) {
+            removeRemoteCursor(user.userId);
+        }
+    }
+}
+
+function removeRemoteCursor(userId) {
+    const cursorElement = cursors.get(userId);
+    if (cursorElement) {
+        clearTimeout(cursorElement.fadeTimeout);
+        cursorElement.remove();
+        cursors.delete(userId);
+    }
+}
+
 async function sendCursorPosition(boardId, x, y) {
+    if (cursorSocket && cursorSocket.readyState === WebSocket.OPEN) {
+        const frame = new DataView(new ArrayBuffer(8));
+        frame.setFloat32(0, x);
+        frame.setFloat32(4, y);
+        cursorSocket.send(frame.buffer);
+        return;
+    }
+
     const mutation = `
         mutation UpdateCursor($boardId: ID!, $x: Float!, $y: Float!) {
             updateCursor(boardId: $boardId, x: $x, y: $y)
@@ -60,39 +129,6 @@ async function sendCursorPosition(boardId, x, y) {
     }
 }
 
-function subscribeToCursorMovements(boardId) {
-    const query = `
-        subscription CursorMoved($boardId: ID!) {
-            cursorMoved(boardId: $boardId) {
-                userId
-                username
-                x
-                y
-                timestamp
-            }
-        }
-    `;
-    
-    subscribe(query, { boardId }, (data) => {
-        const cursor = data.cursorMoved;
-        
-        // Don't show our own cursor - we can see our real cursor!
-        if (isOwnCursor(cursor.userId)) {
-            console.log('⏭️ Skipping own cursor update');
-            return;
-        }
-        
-        updateRemoteCursor(cursor);
-    });
-}
-
-// Check if cursor belongs to current user
-function isOwnCursor(userId) {
-    // We need to get the current user's ID
-    // We'll store it when the page loads
-    return userId === window.currentUserId;
-}
-
 function updateRemoteCursor(cursorData) {
     const { userId, username, x, y } = cursorData;
     
@@ -0,0 +1,89 @@
+package com.mindmap.cache;
+
+import com.mindmap.model.Edge;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdjacencyIndexTest {
+
+    @Test
+    void indexesEdgesByBothEndpoints() {
+        AdjacencyIndex index = new AdjacencyIndex();
+        index.add(edge("e1", "a", "b"));
+        index.add(edge("e2", "a", "c"));
+        index.add(edge("e3", "c", "a"));
+
+        assertThat(index.outgoing("a")).containsExactlyInAnyOrder("e1", "e2");
+        assertThat(index.incoming("a")).containsExactly("e3");
+        assertThat(index.incoming("b")).containsExactly("e1");
+        assertThat(index.edgesOf("a")).containsExactlyInAnyOrder("e1", "e2", "e3");
+        assertThat(index.edgesOf("unknown")).isEmpty();
+    }
+
+    @Test
+    void selfLoopIsListedOnce() {
+        AdjacencyIndex index = new AdjacencyIndex();
+        index.add(edge("loop", "a", "a"));
+
+        assertThat(index.edgesOf("a")).containsExactly("loop");
+        assertThat(index.outgoing("a")).containsExactly("loop");
+        assertThat(index.incoming("a")).containsExactly("loop");
+    }
+
+    @Test
+    void removingLastEdgeOfNodeLeavesNothingBehind() {
+        AdjacencyIndex index = new AdjacencyIndex();
+        Edge edge = edge("e1", "a", "b");
+        index.add(edge);
+        index.add(edge("e2", "a", "c"));
+
+        index.remove(edge);
+        assertThat(index.outgoing("a")).containsExactly("e2");
+        assertThat(index.incoming("b")).isEmpty();
+
+        index.remove(edge("e2", "a", "c"));
+        assertThat(index.edgesOf("a")).isEmpty();
+        // Removing twice is harmless
+        index.remove(edge);
+    }
+
+    @Test
+    void edgesWithMissingEndpointsAreSkipped() {
+        AdjacencyIndex index = new AdjacencyIndex();
+        index.add(edge("e1", null, "b"));
+
+        assertThat(index.incoming("b")).containsExactly("e1");
+        index.remove(edge("e1", null, "b"));
+        assertThat(index.edgesOf("b")).isEmpty();
+    }
+
+    @Test
+    void boardStateReindexesEdgesWhoseEndpointsChange() {
+        BoardState state = new BoardState("board-1", List.of(), List.of(edge("e1", "a", "b"), edge("e2", "b", "c")));
+
+        state.putEdge(edge("e1", "a", "c"));
+        assertThat(state.findEdge("a", "b")).isNull();
+        assertThat(state.findEdge("a", "c")).extracting(Edge::getId).isEqualTo("e1");
+        assertThat(state.incomingEdges("c")).extracting(Edge::getId).containsExactlyInAnyOrder("e1", "e2");
+        assertThat(state.edgesOf("b")).extracting(Edge::getId).containsExactly("e2");
+    }
+
+    @Test
+    void boardStateCascadesOnlyTheRemovedNodesEdges() {
+        BoardState state = new BoardState("board-1", List.of(),
+                List.of(edge("e1", "a", "b"), edge("e2", "b", "c"), edge("e3", "c", "a"), edge("e4", "c", "d")));
+
+        List<Edge> removed = state.removeEdgesOf("a");
+
+        assertThat(removed).extracting(Edge::getId).containsExactlyInAnyOrder("e1", "e3");
+        assertThat(state.getEdges()).containsOnlyKeys("e2", "e4");
+        assertThat(state.outgoingEdges("c")).extracting(Edge::getId).containsExactly("e4");
+    }
+
+    private static Edge edge(String id, String source, String target) {
+        return Edge.builder().id(id).boardId("board-1").source(source).target(target).build();
+    }
+}
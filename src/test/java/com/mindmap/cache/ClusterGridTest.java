@@ -0,0 +1,131 @@
+package com.mindmap.cache;
+
+import com.mindmap.graphql.payload.NodeCluster;
+import com.mindmap.model.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterGridTest {
+
+    private final Map<String, Node> nodes = new HashMap<>();
+
+    @Test
+    void bucketsNodesByCentreIntoCells() {
+        ClusterGrid grid = grid(100,
+                node("a", 10, 10), node("b", 90, 20), node("c", 150, 10), node("d", -10, -10));
+
+        assertThat(grid.clusters(nodes))
+                .extracting(NodeCluster::getCount)
+                .containsExactlyInAnyOrder(2, 1, 1);
+    }
+
+    @Test
+    void summarisesCellWithCentreBoundsAndLargestNode() {
+        Node small = node("a", 10, 10);
+        Node large = node("b", 50, 30);
+        large.setWidth(200);
+        large.setHeight(100);
+        large.setLabel("Big idea");
+        ClusterGrid grid = grid(100, small, large);
+
+        NodeCluster cluster = single(grid.clusters(nodes));
+
+        assertThat(cluster.getCount()).isEqualTo(2);
+        assertThat(cluster.getX()).isEqualTo(30);
+        assertThat(cluster.getY()).isEqualTo(20);
+        assertThat(cluster.getMinX()).isEqualTo(-50);
+        assertThat(cluster.getMaxX()).isEqualTo(150);
+        assertThat(cluster.getMinY()).isEqualTo(-20);
+        assertThat(cluster.getMaxY()).isEqualTo(80);
+        assertThat(cluster.getRepresentativeNodeId()).isEqualTo("b");
+        assertThat(cluster.getLabel()).isEqualTo("Big idea");
+    }
+
+    @Test
+    void movedNodeLeavesOldCellAndEmptyCellsDisappear() {
+        Node a = node("a", 10, 10);
+        ClusterGrid grid = grid(100, a, node("b", 20, 20), node("c", 250, 250));
+
+        move(grid, a, 260, 260);
+        List<NodeCluster> clusters = grid.clusters(nodes);
+        assertThat(clusters).extracting(NodeCluster::getCount).containsExactlyInAnyOrder(1, 2);
+
+        move(grid, nodes.get("b"), 270, 270);
+        assertThat(single(grid.clusters(nodes)).getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void removedNodeNoLongerCounted() {
+        ClusterGrid grid = grid(100, node("a", 10, 10), node("b", 20, 20));
+
+        nodes.remove("a");
+        grid.remove("a");
+        grid.remove("missing");
+
+        NodeCluster cluster = single(grid.clusters(nodes));
+        assertThat(cluster.getCount()).isEqualTo(1);
+        assertThat(cluster.getRepresentativeNodeId()).isEqualTo("b");
+    }
+
+    @Test
+    void untouchedCellsReuseTheirSummary() {
+        Node a = node("a", 10, 10);
+        ClusterGrid grid = grid(100, a, node("b", 250, 250));
+        Map<String, NodeCluster> before = byRepresentative(grid.clusters(nodes));
+
+        Node renamed = a.toBuilder().label("Renamed").build();
+        nodes.put("a", renamed);
+        grid.put(renamed);
+        Map<String, NodeCluster> after = byRepresentative(grid.clusters(nodes));
+
+        assertThat(after.get("b")).isSameAs(before.get("b"));
+        assertThat(after.get("a")).isNotSameAs(before.get("a"));
+        assertThat(after.get("a").getLabel()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void boardStateKeepsBuiltGridsCurrent() {
+        Node a = node("a", 10, 10);
+        BoardState state = new BoardState("board-1", List.of(a, node("b", 20, 20)), List.of());
+        assertThat(state.clusters(100)).hasSize(1);
+
+        state.putNode(a.toBuilder().x(500.0).build());
+        assertThat(state.clusters(100)).extracting(NodeCluster::getCount).containsExactlyInAnyOrder(1, 1);
+
+        state.removeNode("b");
+        assertThat(state.clusters(100)).extracting(NodeCluster::getCount).containsExactly(1);
+    }
+
+    private ClusterGrid grid(double cellSize, Node... members) {
+        for (Node node : members) {
+            nodes.put(node.getId(), node);
+        }
+        return new ClusterGrid(cellSize, nodes.values());
+    }
+
+    private void move(ClusterGrid grid, Node node, double x, double y) {
+        Node moved = node.toBuilder().x(x).y(y).build();
+        nodes.put(moved.getId(), moved);
+        grid.put(moved);
+    }
+
+    private static Node node(String id, double x, double y) {
+        return Node.builder().id(id).boardId("board-1").label(id).x(x).y(y).build();
+    }
+
+    private static NodeCluster single(List<NodeCluster> clusters) {
+        assertThat(clusters).hasSize(1);
+        return clusters.get(0);
+    }
+
+    private static Map<String, NodeCluster> byRepresentative(List<NodeCluster> clusters) {
+        Map<String, NodeCluster> found = new HashMap<>();
+        clusters.forEach(cluster -> found.put(cluster.getRepresentativeNodeId(), cluster));
+        return found;
+    }
+}
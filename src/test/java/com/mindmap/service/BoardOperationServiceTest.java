@@ -0,0 +1,145 @@
+package com.mindmap.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.input.BoardOp;
+import com.mindmap.graphql.input.BoardOpType;
+import com.mindmap.graphql.input.CreateEdgeInput;
+import com.mindmap.graphql.input.CreateNodeInput;
+import com.mindmap.graphql.input.UpdateNodeInput;
+import com.mindmap.graphql.payload.BoardOpResult;
+import com.mindmap.model.Node;
+import com.mindmap.repository.EdgeRepository;
+import com.mindmap.repository.NodeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoardOperationServiceTest {
+
+    private static final String BOARD = "board-1";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final NodeRepository nodeRepository = mock(NodeRepository.class);
+    private final EdgeRepository edgeRepository = mock(EdgeRepository.class);
+    private final BoardWriteExecutor boardWriteExecutor = new BoardWriteExecutor(registry, 1000);
+    private BoardStateCache boardStateCache;
+    private BoardOperationService service;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class)))
+                .thenAnswer(invocation -> mock(BulkOperations.class));
+        NodeWriteBehindQueue nodeWriteBehindQueue = mock(NodeWriteBehindQueue.class);
+        boardStateCache = new BoardStateCache(nodeRepository, edgeRepository, nodeWriteBehindQueue,
+                registry, Duration.ofMinutes(10), 256);
+        service = new BoardOperationService(mongoTemplate, boardStateCache, nodeWriteBehindQueue,
+                mock(SubscriptionService.class), boardWriteExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        boardWriteExecutor.shutdown();
+    }
+
+    @Test
+    void batchLabelEditReweighsTheBoard() {
+        when(nodeRepository.findByBoardId(BOARD)).thenReturn(List.of(node("a")));
+        BoardState state = boardStateCache.getBoard(BOARD);
+        int before = state.weightKb();
+        assertThat(cachedWeight()).isEqualTo(before);
+
+        List<BoardOpResult> results = service.applyOperations(BOARD,
+                List.of(updateNode("a", "x".repeat(20_000))), null);
+
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(state.weightKb()).isGreaterThan(before);
+        assertThat(cachedWeight()).isEqualTo(state.weightKb());
+    }
+
+    @Test
+    void createsUndoneLaterInTheBatchReportNoIds() {
+        when(nodeRepository.findByBoardId(BOARD)).thenReturn(List.of(node("a")));
+
+        List<BoardOpResult> results = service.applyOperations(BOARD, List.of(
+                createNode("tmp"),
+                updateNode("tmp", "Renamed"),
+                createEdge("a", "tmp"),
+                deleteNode("tmp")), null);
+
+        assertThat(results).allMatch(BoardOpResult::isSuccess);
+        assertThat(results.subList(0, 3)).allSatisfy(result -> {
+            assertThat(result.getId()).isNull();
+            assertThat(result.getNode()).isNull();
+            assertThat(result.getEdge()).isNull();
+        });
+        assertThat(boardStateCache.getBoard(BOARD).getNodes()).containsOnlyKeys("a");
+        assertThat(boardStateCache.getBoard(BOARD).getEdges()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int cachedWeight() {
+        Cache<String, BoardState> boards = (Cache<String, BoardState>)
+                ReflectionTestUtils.getField(boardStateCache, "boards");
+        return boards.policy().eviction().orElseThrow().weightOf(BOARD).orElseThrow();
+    }
+
+    private static BoardOp createNode(String ref) {
+        CreateNodeInput input = new CreateNodeInput();
+        input.setLabel(ref);
+        input.setX(0.0);
+        input.setY(0.0);
+        BoardOp op = new BoardOp();
+        op.setType(BoardOpType.CREATE_NODE);
+        op.setRef(ref);
+        op.setCreateNode(input);
+        return op;
+    }
+
+    private static BoardOp createEdge(String source, String target) {
+        CreateEdgeInput input = new CreateEdgeInput();
+        input.setSource(source);
+        input.setTarget(target);
+        BoardOp op = new BoardOp();
+        op.setType(BoardOpType.CREATE_EDGE);
+        op.setCreateEdge(input);
+        return op;
+    }
+
+    private static BoardOp deleteNode(String nodeId) {
+        BoardOp op = new BoardOp();
+        op.setType(BoardOpType.DELETE_NODE);
+        op.setId(nodeId);
+        return op;
+    }
+
+    private static BoardOp updateNode(String nodeId, String label) {
+        UpdateNodeInput input = new UpdateNodeInput();
+        input.setLabel(label);
+        BoardOp op = new BoardOp();
+        op.setType(BoardOpType.UPDATE_NODE);
+        op.setId(nodeId);
+        op.setUpdateNode(input);
+        return op;
+    }
+
+    private static Node node(String id) {
+        return Node.builder().id(id).boardId(BOARD).label(id).x(0.0).y(0.0).version(0L).build();
+    }
+}
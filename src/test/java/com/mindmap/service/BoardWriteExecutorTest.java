@@ -0,0 +1,130 @@
+package com.mindmap.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class BoardWriteExecutorTest {
+
+    private final BoardWriteExecutor executor = new BoardWriteExecutor(new SimpleMeterRegistry(), 1000);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void nestedWriteToSameBoardRunsInline() {
+        String result = assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                executor.run("board-1", () -> {
+                    Thread outer = Thread.currentThread();
+                    return executor.run("board-1", () -> {
+                        assertThat(Thread.currentThread()).isSameAs(outer);
+                        return "inner";
+                    }) + " then outer";
+                }));
+
+        assertThat(result).isEqualTo("inner then outer");
+    }
+
+    @Test
+    void nestedWriteToOtherBoardGoesThroughItsWriter() {
+        boolean sameThread = assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                executor.run("board-1", () -> {
+                    Thread outer = Thread.currentThread();
+                    return executor.run("board-2", () -> Thread.currentThread() == outer);
+                }));
+
+        assertThat(sameThread).isFalse();
+    }
+
+    @Test
+    void writesToOneBoardNeverOverlap() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        int[] counter = new int[1];
+        List<CompletableFuture<Void>> callers = new ArrayList<>();
+        for (int caller = 0; caller < 8; caller++) {
+            callers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 200; i++) {
+                    executor.run("board-1", () -> {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        counter[0]++;
+                        active.decrementAndGet();
+                        return null;
+                    });
+                }
+            }));
+        }
+        CompletableFuture.allOf(callers.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(counter[0]).isEqualTo(1600);
+        assertThat(maxActive.get()).isEqualTo(1);
+    }
+
+    @Test
+    void mutationErrorReachesCaller() {
+        assertThatThrownBy(() -> executor.run("board-1", () -> {
+            throw new RuntimeException("Node not found");
+        })).isInstanceOf(RuntimeException.class).hasMessage("Node not found");
+
+        // The board's writer is still usable afterwards
+        assertThat(executor.run("board-1", () -> 1)).isEqualTo(1);
+    }
+
+    @Test
+    void fullMailboxTurnsCallersAway() throws Exception {
+        BoardWriteExecutor small = new BoardWriteExecutor(new SimpleMeterRegistry(), 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> small.run("board-1", () -> {
+                started.countDown();
+                await(release);
+                return "first";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // One of these waits in the single queue slot, the other is refused
+            CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> small.run("board-1", () -> "queued"));
+            CompletableFuture<String> third = CompletableFuture.supplyAsync(() -> small.run("board-1", () -> "queued"));
+            CompletableFuture.anyOf(second, third).exceptionally(e -> null).get(5, TimeUnit.SECONDS);
+            release.countDown();
+
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            List<String> outcomes = new ArrayList<>();
+            for (CompletableFuture<String> caller : List.of(second, third)) {
+                try {
+                    outcomes.add(caller.get(5, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    outcomes.add(e.getCause().getMessage());
+                }
+            }
+            assertThat(outcomes).containsExactlyInAnyOrder("queued", "Board is too busy, try again");
+        } finally {
+            release.countDown();
+            small.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.BoardEvent;
+import com.mindmap.graphql.subscription.BoardOperationsBatch;
+import com.mindmap.graphql.subscription.ChangeType;
+import com.mindmap.graphql.subscription.EdgeChange;
+import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.graphql.subscription.NodeDelta;
+import com.mindmap.graphql.subscription.ResyncRequired;
+import com.mindmap.model.Node;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConflatingBufferTest {
+
+    private final List<BoardEvent> delivered = new ArrayList<>();
+    private long demand;
+    private FluxSink<BoardEvent> downstream;
+    private ConflatingBuffer buffer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        downstream = mock(FluxSink.class);
+        when(downstream.requestedFromDownstream()).thenAnswer(invocation -> demand);
+        doAnswer(invocation -> {
+            delivered.add(invocation.getArgument(0));
+            demand--;
+            return downstream;
+        }).when(downstream).next(any());
+    }
+
+    @Test
+    void deliversInSequenceOrderWhileClientKeepsUp() {
+        ConflatingBuffer buffer = newBuffer(16);
+        demand = Long.MAX_VALUE;
+
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+        buffer.offer(event(2, nodeUpdate("b", NodeDelta.builder().id("b").x(2.0).build())));
+        buffer.offer(event(3, nodeUpdate("a", NodeDelta.builder().id("a").y(3.0).build())));
+
+        assertThat(delivered).extracting(BoardEvent::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(delivered).noneMatch(BoardEvent::isConflated);
+    }
+
+    @Test
+    void mergesQueuedUpdatesToSameNodeInItsOriginalPosition() {
+        ConflatingBuffer buffer = newBuffer(16);
+
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+        buffer.offer(event(2, nodeUpdate("b", NodeDelta.builder().id("b").x(2.0).build())));
+        buffer.offer(event(3, nodeUpdate("a", NodeDelta.builder().id("a").y(3.0).build())));
+        release();
+
+        assertThat(delivered).extracting(event -> ((NodeChange) event.getPayload()).getNodeId())
+                .containsExactly("a", "b");
+        BoardEvent merged = delivered.get(0);
+        assertThat(merged.isConflated()).isTrue();
+        assertThat(merged.getSequence()).isEqualTo(3);
+        NodeDelta delta = ((NodeChange) merged.getPayload()).getDelta();
+        assertThat(delta.getX()).isEqualTo(1.0);
+        assertThat(delta.getY()).isEqualTo(3.0);
+    }
+
+    @Test
+    void updateToUnseenNodeStaysCreation() {
+        ConflatingBuffer buffer = newBuffer(16);
+        Node node = Node.builder().id("a").boardId("board-1").label("Old").x(0.0).y(0.0).build();
+
+        buffer.offer(event(1, NodeChange.builder().node(node).nodeId("a").changeType(ChangeType.CREATED).build()));
+        buffer.offer(event(2, nodeUpdate("a", NodeDelta.builder().id("a").label("New").build())));
+        release();
+
+        assertThat(delivered).hasSize(1);
+        NodeChange change = (NodeChange) delivered.get(0).getPayload();
+        assertThat(change.getChangeType()).isEqualTo(ChangeType.CREATED);
+        assertThat(change.getNode().getLabel()).isEqualTo("New");
+    }
+
+    @Test
+    void deletionMovesBehindEverythingStillQueued() {
+        ConflatingBuffer buffer = newBuffer(16);
+
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+        buffer.offer(event(2, EdgeChange.builder().edgeId("e").changeType(ChangeType.CREATED).build()));
+        buffer.offer(event(3, NodeChange.builder().nodeId("a").changeType(ChangeType.DELETED).build()));
+        release();
+
+        assertThat(delivered).extracting(event -> event.getPayload().getClass().getSimpleName())
+                .containsExactly("EdgeChange", "NodeChange");
+        assertThat(((NodeChange) delivered.get(1).getPayload()).getChangeType()).isEqualTo(ChangeType.DELETED);
+    }
+
+    @Test
+    void changeAfterBatchIsNotMergedAheadOfIt() {
+        ConflatingBuffer buffer = newBuffer(16);
+
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+        buffer.offer(event(2, BoardOperationsBatch.builder()
+                .boardId("board-1")
+                .nodeChanges(List.of(nodeUpdate("a", NodeDelta.builder().id("a").x(2.0).build())))
+                .edgeChanges(List.of())
+                .build()));
+        buffer.offer(event(3, nodeUpdate("a", NodeDelta.builder().id("a").x(3.0).build())));
+        release();
+
+        assertThat(delivered).extracting(BoardEvent::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(((NodeChange) delivered.get(2).getPayload()).getDelta().getX()).isEqualTo(3.0);
+    }
+
+    @Test
+    void changesAfterBatchStillMergeWithEachOther() {
+        ConflatingBuffer buffer = newBuffer(16);
+
+        buffer.offer(event(1, BoardOperationsBatch.builder()
+                .boardId("board-1")
+                .nodeChanges(List.of(nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())))
+                .edgeChanges(List.of())
+                .build()));
+        buffer.offer(event(2, nodeUpdate("a", NodeDelta.builder().id("a").x(2.0).build())));
+        buffer.offer(event(3, nodeUpdate("a", NodeDelta.builder().id("a").x(3.0).build())));
+        release();
+
+        assertThat(delivered).extracting(BoardEvent::getSequence).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void replayOverlapIsDeliveredOnce() {
+        ConflatingBuffer buffer = newBuffer(16);
+        demand = Long.MAX_VALUE;
+
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+        buffer.offer(event(2, nodeUpdate("b", NodeDelta.builder().id("b").x(1.0).build())));
+
+        assertThat(delivered).extracting(BoardEvent::getSequence).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void overflowIsReplacedByResyncFromLastDelivered() {
+        ConflatingBuffer buffer = newBuffer(2);
+        demand = 1;
+        buffer.offer(event(1, nodeUpdate("a", NodeDelta.builder().id("a").x(1.0).build())));
+
+        buffer.offer(event(2, nodeUpdate("b", NodeDelta.builder().id("b").x(1.0).build())));
+        buffer.offer(event(3, nodeUpdate("c", NodeDelta.builder().id("c").x(1.0).build())));
+        buffer.offer(event(4, nodeUpdate("d", NodeDelta.builder().id("d").x(1.0).build())));
+        release();
+
+        assertThat(delivered).hasSize(2);
+        assertThat(delivered.get(1).getPayload()).isInstanceOfSatisfying(ResyncRequired.class, resync -> {
+            assertThat(resync.getSinceSequence()).isEqualTo(1);
+            assertThat(resync.getCurrentSequence()).isEqualTo(4);
+        });
+    }
+
+    private ConflatingBuffer newBuffer(int size) {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ChannelSettings settings = new ChannelSettings(1024, 60_000, size,
+                Counter.builder("conflated").register(registry),
+                Counter.builder("overflows").register(registry),
+                Runnable::run,
+                100,
+                Timer.builder("queue_wait").register(registry),
+                Timer.builder("delivery").register(registry));
+        buffer = new ConflatingBuffer(downstream, settings, 0, 0);
+        return buffer;
+    }
+
+    private void release() {
+        demand = Long.MAX_VALUE;
+        // What the subscription's request handler does
+        buffer.drain();
+    }
+
+    private static BoardEvent event(long sequence, Object payload) {
+        return BoardEvent.builder().boardId("board-1").sequence(sequence).payload(payload).build();
+    }
+
+    private static NodeChange nodeUpdate(String nodeId, NodeDelta delta) {
+        return NodeChange.builder().nodeId(nodeId).delta(delta).changeType(ChangeType.UPDATED).build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.BoardEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventRingTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void replaysEventsAfterGivenSequence() {
+        EventRing ring = new EventRing(8, MINUTE);
+        appendRange(ring, 1, 5);
+
+        assertThat(sequences(ring.since(2, 5))).containsExactly(3L, 4L, 5L);
+        assertThat(ring.since(5, 5)).isEmpty();
+    }
+
+    @Test
+    void keepsLatestCapacityEventsAfterWrappingAround() {
+        EventRing ring = new EventRing(8, MINUTE);
+        appendRange(ring, 1, 20);
+
+        assertThat(sequences(ring.since(12, 20))).containsExactly(13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+        // One further back than the ring holds
+        assertThat(ring.since(11, 20)).isNull();
+    }
+
+    @Test
+    void detectsSlotsOverwrittenSinceReaderLookedAtHead() {
+        EventRing ring = new EventRing(8, MINUTE);
+        appendRange(ring, 1, 20);
+
+        // A reader that saw head 12 asks for 5..12, but 5 now holds 13
+        assertThat(ring.since(4, 12)).isNull();
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        EventRing ring = new EventRing(5, MINUTE);
+        appendRange(ring, 1, 16);
+
+        assertThat(sequences(ring.since(8, 16))).hasSize(8);
+        assertThat(ring.since(7, 16)).isNull();
+    }
+
+    @Test
+    void wrapsAroundWithEpochInHighBits() {
+        long base = 123L << 32;
+        EventRing ring = new EventRing(8, MINUTE);
+        appendRange(ring, base + 1, base + 11);
+
+        assertThat(sequences(ring.since(base + 3, base + 11)))
+                .containsExactlyElementsOf(LongStream.rangeClosed(base + 4, base + 11).boxed().toList());
+        assertThat(ring.since(base + 2, base + 11)).isNull();
+    }
+
+    @Test
+    void doesNotReplayEventsOlderThanMaxAge() throws InterruptedException {
+        EventRing ring = new EventRing(8, 0);
+        appendRange(ring, 1, 3);
+        Thread.sleep(5);
+
+        assertThat(ring.since(1, 3)).isNull();
+    }
+
+    private static void appendRange(EventRing ring, long from, long to) {
+        for (long sequence = from; sequence <= to; sequence++) {
+            ring.append(BoardEvent.builder().boardId("board-1").sequence(sequence).build());
+        }
+    }
+
+    private static List<Long> sequences(List<BoardEvent> events) {
+        assertThat(events).isNotNull();
+        return events.stream().map(BoardEvent::getSequence).toList();
+    }
+}
@@ -0,0 +1,139 @@
+package com.mindmap.service;
+
+import com.mindmap.cache.BoardState;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.input.TraversalDirection;
+import com.mindmap.graphql.payload.GraphSlice;
+import com.mindmap.model.Edge;
+import com.mindmap.model.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GraphTraversalServiceTest {
+
+    private final BoardStateCache boardStateCache = mock(BoardStateCache.class);
+    private final SubscriptionService subscriptionService = mock(SubscriptionService.class);
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Edge> edges = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(subscriptionService.currentSequence("board-1")).thenReturn(7L);
+        when(boardStateCache.findNode(anyString())).thenAnswer(invocation -> nodes.stream()
+                .filter(node -> node.getId().equals(invocation.getArgument(0)))
+                .findFirst());
+        when(boardStateCache.getBoard("board-1")).thenAnswer(invocation -> new BoardState("board-1", nodes, edges));
+    }
+
+    @Test
+    void findsShortestPathAlongEdgeDirection() {
+        // a -> b -> c -> d is longer than a -> e -> d
+        nodes("a", "b", "c", "d", "e");
+        edge("ab", "a", "b");
+        edge("bc", "b", "c");
+        edge("cd", "c", "d");
+        edge("ae", "a", "e");
+        edge("ed", "e", "d");
+
+        GraphSlice path = service(100).path("a", "d", TraversalDirection.OUTGOING);
+
+        assertThat(path.getNodes()).extracting(Node::getId).containsExactly("a", "e", "d");
+        assertThat(path.getEdges()).extracting(Edge::getId).containsExactly("ae", "ed");
+        assertThat(path.isTruncated()).isFalse();
+        assertThat(path.getSequence()).isEqualTo(7);
+    }
+
+    @Test
+    void directionDecidesWhichEdgesCanBeFollowed() {
+        nodes("a", "b", "c");
+        edge("ab", "a", "b");
+        edge("cb", "c", "b");
+
+        GraphTraversalService service = service(100);
+
+        assertThat(service.path("a", "c", TraversalDirection.OUTGOING).getNodes()).isEmpty();
+        assertThat(service.path("b", "a", TraversalDirection.INCOMING).getNodes())
+                .extracting(Node::getId).containsExactly("b", "a");
+        assertThat(service.path("a", "c", TraversalDirection.BOTH).getEdges())
+                .extracting(Edge::getId).containsExactly("ab", "cb");
+    }
+
+    @Test
+    void unconnectedNodesGiveEmptyPath() {
+        nodes("a", "b", "c");
+        edge("ab", "a", "b");
+
+        GraphSlice path = service(100).path("a", "c", TraversalDirection.BOTH);
+
+        assertThat(path.getNodes()).isEmpty();
+        assertThat(path.getEdges()).isEmpty();
+        assertThat(path.isTruncated()).isFalse();
+    }
+
+    @Test
+    void pathToItselfIsTheNodeAlone() {
+        nodes("a");
+
+        GraphSlice path = service(100).path("a", "a", TraversalDirection.BOTH);
+
+        assertThat(path.getNodes()).extracting(Node::getId).containsExactly("a");
+        assertThat(path.getEdges()).isEmpty();
+    }
+
+    @Test
+    void searchStopsAtNodeLimit() {
+        nodes("n0", "n1", "n2", "n3", "n4", "n5");
+        for (int i = 0; i < 5; i++) {
+            edge("e" + i, "n" + i, "n" + (i + 1));
+        }
+
+        GraphSlice path = service(3).path("n0", "n5", TraversalDirection.OUTGOING);
+
+        assertThat(path.getNodes()).isEmpty();
+        assertThat(path.isTruncated()).isTrue();
+    }
+
+    @Test
+    void danglingEdgesAreNotFollowed() {
+        nodes("a", "d");
+        edge("ax", "a", "x");
+        edge("xd", "x", "d");
+
+        GraphSlice path = service(100).path("a", "d", TraversalDirection.OUTGOING);
+
+        assertThat(path.getNodes()).isEmpty();
+    }
+
+    @Test
+    void unknownEndpointsAreRejected() {
+        nodes("a");
+
+        assertThatThrownBy(() -> service(100).path("a", "missing", TraversalDirection.BOTH))
+                .hasMessage("Node not found");
+        assertThatThrownBy(() -> service(100).path("missing", "a", TraversalDirection.BOTH))
+                .hasMessage("Node not found");
+    }
+
+    private GraphTraversalService service(int maxNodes) {
+        return new GraphTraversalService(boardStateCache, subscriptionService, maxNodes, 64);
+    }
+
+    private void nodes(String... ids) {
+        for (String id : ids) {
+            nodes.add(Node.builder().id(id).boardId("board-1").label(id).x(0.0).y(0.0).build());
+        }
+    }
+
+    private void edge(String id, String source, String target) {
+        edges.add(Edge.builder().id(id).boardId("board-1").source(source).target(target).build());
+    }
+}
@@ -0,0 +1,239 @@
+package com.mindmap.service;
+
+import com.mindmap.graphql.subscription.ResyncRequired;
+import com.mindmap.model.BoardEventRecord;
+import com.mongodb.MongoException;
+import com.mongodb.ServerAddress;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoBoardEventBusTest {
+
+    private static final String COLLECTION = "board_events";
+
+    // What the tail cursor hands out next; a RuntimeException entry is thrown instead
+    private final BlockingQueue<Object> tailed = new LinkedBlockingQueue<>();
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final List<Boolean> remoteFlags = new CopyOnWriteArrayList<>();
+    private final CountDownLatch gaps = new CountDownLatch(1);
+
+    private MongoTemplate mongoTemplate;
+    private FindIterable<Document> oldest;
+    private MongoBoardEventBus bus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.collectionExists(COLLECTION)).thenReturn(true);
+
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        when(mongoTemplate.getCollection(COLLECTION)).thenReturn(collection);
+
+        FindIterable<Document> tail = mock(FindIterable.class);
+        when(collection.find(any(Bson.class))).thenReturn(tail);
+        when(tail.cursorType(any())).thenReturn(tail);
+        when(tail.maxAwaitTime(anyLong(), any())).thenReturn(tail);
+        when(tail.iterator()).thenAnswer(invocation -> cursor());
+
+        oldest = mock(FindIterable.class);
+        when(collection.find()).thenReturn(oldest);
+        when(oldest.sort(any())).thenReturn(oldest);
+        when(oldest.limit(anyInt())).thenReturn(oldest);
+
+        MongoConverter converter = mock(MongoConverter.class);
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(eq(BoardEventRecord.class), any(Document.class))).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(1);
+            return BoardEventRecord.builder()
+                    .id(document.getObjectId("_id").toHexString())
+                    .boardId(document.getString("boardId"))
+                    .origin(document.getString("origin"))
+                    .payload(document.get("payload"))
+                    .createdAt(document.getDate("createdAt").toInstant())
+                    .build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void eventsSeenAgainAfterReopeningAreDroppedOnce() throws InterruptedException {
+        Document first = event("board-1", "other");
+        Document second = event("board-2", "other");
+        tailed.add(first);
+        tailed.add(second);
+        tailed.add(new MongoException("cursor killed"));
+        // The reopened tail looks back and reads both again before the new one
+        tailed.add(first);
+        tailed.add(second);
+        tailed.add(event("board-3", "other"));
+
+        start();
+
+        awaitReceived(3);
+        Thread.sleep(100);
+        assertThat(received).containsExactly("board-1", "board-2", "board-3");
+        assertThat(remoteFlags).containsOnly(true);
+    }
+
+    @Test
+    void signalsGapWhenCollectionWrappedPastLastReadEvent() throws InterruptedException {
+        Document first = event("board-1", "other");
+        when(oldest.first()).thenReturn(new Document("createdAt",
+                Date.from(first.getDate("createdAt").toInstant().plusSeconds(60))));
+        tailed.add(first);
+        tailed.add(new MongoException("cursor killed"));
+
+        start();
+
+        assertThat(gaps.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactly("board-1");
+    }
+
+    @Test
+    void noGapWhileLastReadEventIsStillInCollection() throws InterruptedException {
+        Document first = event("board-1", "other");
+        when(oldest.first()).thenReturn(first);
+        tailed.add(first);
+        tailed.add(new MongoException("cursor killed"));
+        tailed.add(event("board-2", "other"));
+
+        start();
+
+        awaitReceived(2);
+        assertThat(gaps.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedAppendResyncsLocallyAndIsSharedLater() {
+        start();
+        doThrow(new MongoException("not primary")).when(mongoTemplate).insert(any(BoardEventRecord.class), eq(COLLECTION));
+
+        bus.publish("board-1", "change");
+
+        assertThat(received).containsExactly("board-1");
+        assertThat(remoteFlags).containsExactly(false);
+
+        doReturn(null).when(mongoTemplate).insert(any(BoardEventRecord.class), eq(COLLECTION));
+        bus.publish("board-1", "next change");
+
+        ArgumentCaptor<BoardEventRecord> appended = ArgumentCaptor.forClass(BoardEventRecord.class);
+        verify(mongoTemplate, timeout(5000).atLeast(3)).insert(appended.capture(), eq(COLLECTION));
+        assertThat(appended.getAllValues())
+                .anySatisfy(record -> assertThat(record.getPayload()).isInstanceOf(ResyncRequired.class));
+        assertThat(appended.getAllValues())
+                .allSatisfy(record -> assertThat(record.getOrigin()).isNotNull());
+    }
+
+    @Test
+    void ownEventsAreNotRemote() {
+        start();
+        ArgumentCaptor<BoardEventRecord> appended = ArgumentCaptor.forClass(BoardEventRecord.class);
+        bus.publish("board-1", "change");
+        verify(mongoTemplate, atLeast(1)).insert(appended.capture(), eq(COLLECTION));
+        BoardEventRecord record = appended.getValue();
+
+        tailed.add(new Document("_id", new ObjectId(record.getId()))
+                .append("boardId", record.getBoardId())
+                .append("origin", record.getOrigin())
+                .append("payload", record.getPayload())
+                .append("createdAt", Date.from(record.getCreatedAt())));
+
+        awaitReceived(1);
+        assertThat(remoteFlags).containsExactly(false);
+    }
+
+    private void start() {
+        bus = new MongoBoardEventBus(mongoTemplate, new SimpleMeterRegistry(), 1, Duration.ofMillis(10));
+        bus.subscribe(new BoardEventBus.Listener() {
+            @Override
+            public void onEvent(String boardId, Object payload, boolean remote) {
+                received.add(boardId);
+                remoteFlags.add(remote);
+            }
+
+            @Override
+            public void onGap() {
+                gaps.countDown();
+            }
+        });
+    }
+
+    private void awaitReceived(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(received).hasSizeGreaterThanOrEqualTo(count);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCursor<Document> cursor() {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        when(cursor.getServerCursor()).thenReturn(new ServerCursor(1, new ServerAddress()));
+        when(cursor.tryNext()).thenAnswer(invocation -> {
+            Object next;
+            try {
+                next = tailed.poll(20, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Shutdown; the tail loop sees it is no longer running
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (next instanceof RuntimeException e) {
+                throw e;
+            }
+            return next;
+        });
+        return cursor;
+    }
+
+    private static Document event(String boardId, String origin) {
+        return new Document("_id", new ObjectId())
+                .append("boardId", boardId)
+                .append("origin", origin)
+                .append("payload", "change")
+                .append("createdAt", Date.from(Instant.now()));
+    }
+}
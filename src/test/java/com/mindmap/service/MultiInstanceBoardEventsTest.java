@@ -0,0 +1,117 @@
+package com.mindmap.service;
+
+import com.mindmap.CollaborativeMindMapApplication;
+import com.mindmap.cache.BoardStateCache;
+import com.mindmap.graphql.subscription.BoardEvent;
+import com.mindmap.graphql.subscription.ChangeType;
+import com.mindmap.graphql.subscription.NodeChange;
+import com.mindmap.graphql.subscription.ResyncRequired;
+import com.mindmap.model.Node;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Two app instances sharing board events through the mongo bus. Needs a MongoDB on localhost:27017
+// and is skipped without one.
+class MultiInstanceBoardEventsTest {
+
+    private static final String MONGO_URI = "mongodb://localhost:27017/mindmap-test";
+
+    private static ConfigurableApplicationContext instanceA;
+    private static ConfigurableApplicationContext instanceB;
+
+    @BeforeAll
+    static void startInstances() {
+        assumeTrue(mongoReachable(), "MongoDB is not running on localhost:27017");
+        instanceA = start();
+        instanceB = start();
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (instanceA != null) {
+            instanceA.close();
+        }
+        if (instanceB != null) {
+            instanceB.close();
+        }
+    }
+
+    @Test
+    void changesFromOneInstanceReachSubscribersAndMemoryOfTheOther() throws Exception {
+        String boardId = new ObjectId().toHexString();
+        BoardStateCache cacheB = instanceB.getBean(BoardStateCache.class);
+        cacheB.getBoard(boardId);
+
+        CompletableFuture<BoardEvent> received = instanceB.getBean(SubscriptionService.class)
+                .subscribeToBoardEvents(boardId, null, false)
+                .next()
+                .toFuture();
+
+        Node node = Node.builder()
+                .id(new ObjectId().toHexString())
+                .boardId(boardId)
+                .label("From A")
+                .x(10.0)
+                .y(20.0)
+                .version(0L)
+                .build();
+        instanceA.getBean(SubscriptionService.class).publishNodeChange(boardId, NodeChange.builder()
+                .node(node)
+                .nodeId(node.getId())
+                .changeType(ChangeType.CREATED)
+                .build());
+
+        BoardEvent event = received.get(10, TimeUnit.SECONDS);
+        assertThat(event.getPayload()).isInstanceOfSatisfying(NodeChange.class,
+                change -> assertThat(change.getNodeId()).isEqualTo(node.getId()));
+        assertThat(cacheB.getBoardIfPresent(boardId))
+                .hasValueSatisfying(state -> assertThat(state.getNode(node.getId())).isNotNull());
+    }
+
+    @Test
+    void resumeTokenFromOneInstanceForcesResyncOnTheOther() {
+        String boardId = new ObjectId().toHexString();
+        long token = instanceA.getBean(SubscriptionService.class).currentSequence(boardId);
+
+        BoardEvent first = instanceB.getBean(SubscriptionService.class)
+                .subscribeToBoardEvents(boardId, token, false)
+                .next()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(first).isNotNull();
+        assertThat(first.getPayload()).isInstanceOf(ResyncRequired.class);
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(CollaborativeMindMapApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.data.mongodb.uri=" + MONGO_URI,
+                        "spring.devtools.restart.enabled=false",
+                        "mindmap.events.bus=mongo")
+                .run();
+    }
+
+    private static boolean mongoReachable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", 27017), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
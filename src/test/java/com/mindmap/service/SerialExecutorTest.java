@@ -0,0 +1,114 @@
+package com.mindmap.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerialExecutorTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    // Turns handed to the pool, run by the test when it chooses
+    private final Queue<Runnable> turns = new ArrayDeque<>();
+
+    @Test
+    void runsTasksInSubmissionOrderNeverTwoAtOnce() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            SerialExecutor executor = executor(pool, 10_000);
+            List<Integer> order = new ArrayList<>();
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger maxActive = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(1000);
+
+            for (int i = 0; i < 1000; i++) {
+                int task = i;
+                assertThat(executor.execute(() -> {
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    order.add(task);
+                    active.decrementAndGet();
+                    done.countDown();
+                })).isTrue();
+            }
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(order).containsExactlyElementsOf(IntStream.range(0, 1000).boxed().toList());
+            assertThat(maxActive.get()).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void refusesTasksBeyondCapacity() {
+        SerialExecutor executor = executor(turns::add, 2);
+
+        assertThat(executor.execute(() -> { })).isTrue();
+        assertThat(executor.execute(() -> { })).isTrue();
+        assertThat(executor.execute(() -> { })).isFalse();
+        assertThat(executor.queued()).isEqualTo(2);
+
+        runTurns();
+        assertThat(executor.queued()).isZero();
+        assertThat(executor.execute(() -> { })).isTrue();
+    }
+
+    @Test
+    void failingTaskDoesNotStopLaterOnes() {
+        SerialExecutor executor = executor(turns::add, 10);
+        List<String> ran = new ArrayList<>();
+
+        executor.execute(() -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute(() -> ran.add("after"));
+        runTurns();
+
+        assertThat(ran).containsExactly("after");
+    }
+
+    @Test
+    void yieldsThePoolAfterEachTurn() {
+        SerialExecutor executor = executor(turns::add, 1000);
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            executor.execute(ran::incrementAndGet);
+        }
+        assertThat(turns).hasSize(1);
+
+        turns.poll().run();
+
+        // One turn's worth ran, and the rest was handed back to the pool as a new turn
+        assertThat(ran.get()).isEqualTo(64);
+        assertThat(turns).hasSize(1);
+        runTurns();
+        assertThat(ran.get()).isEqualTo(100);
+    }
+
+    private SerialExecutor executor(Executor pool, int capacity) {
+        return new SerialExecutor(pool, capacity,
+                Timer.builder("queue_wait").register(registry),
+                Timer.builder("delivery").register(registry));
+    }
+
+    private void runTurns() {
+        Runnable turn;
+        while ((turn = turns.poll()) != null) {
+            turn.run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mindmap.service;
+
+import com.mindmap.model.Node;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VersioningTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<String> cacheCalls = new ArrayList<>();
+
+    @Test
+    void unversionedDocumentsCountAsVersionZero() {
+        assertThat(Versioning.current(null)).isZero();
+        assertThat(Versioning.next(null)).isEqualTo(1);
+        assertThat(Versioning.next(4L)).isEqualTo(5);
+        assertThat(Versioning.isStale(0L, null)).isFalse();
+        assertThat(Versioning.isStale(3L, 4L)).isTrue();
+        assertThat(Versioning.isStale(null, 4L)).isFalse();
+    }
+
+    @Test
+    void successfulUpdateIsCached() {
+        Node updated = Node.builder().id("n1").version(2L).build();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Node.class))).thenReturn(updated);
+
+        Node result = apply(1L);
+
+        assertThat(result).isSameAs(updated);
+        assertThat(cacheCalls).containsExactly("put n1@2");
+    }
+
+    @Test
+    void versionMismatchReportsAndCachesCurrentDocument() {
+        Node current = Node.builder().id("n1").version(5L).build();
+        when(mongoTemplate.findById("n1", Node.class)).thenReturn(current);
+
+        assertThatThrownBy(() -> apply(1L))
+                .isInstanceOfSatisfying(VersionConflictException.class,
+                        e -> assertThat(e.getCurrent()).isSameAs(current));
+        assertThat(cacheCalls).containsExactly("put n1@5");
+    }
+
+    @Test
+    void missingDocumentIsRemovedFromCache() {
+        assertThatThrownBy(() -> apply(null)).hasMessage("Node not found");
+        assertThat(cacheCalls).containsExactly("remove");
+    }
+
+    @Test
+    void failedWriteEvictsBoard() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Node.class))).thenThrow(new IllegalStateException("timeout"));
+
+        assertThatThrownBy(() -> apply(1L)).hasMessage("timeout");
+        assertThat(cacheCalls).containsExactly("evict");
+    }
+
+    private Node apply(Long expectedVersion) {
+        return Versioning.applyAtomically(mongoTemplate, Node.class, "n1", Map.of("label", "Renamed"),
+                expectedVersion,
+                node -> cacheCalls.add("put " + node.getId() + "@" + node.getVersion()),
+                () -> cacheCalls.add("remove"),
+                () -> cacheCalls.add("evict"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.mindmap.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuadTreeTest {
+
+    @Test
+    void findsBoxesOverlappingQueryArea() {
+        QuadTree<String> tree = new QuadTree<>();
+        tree.put("a", "a", new Box(0, 0, 10, 10));
+        tree.put("b", "b", new Box(100, 100, 120, 110));
+        tree.put("c", "c", new Box(-50, -50, -40, -40));
+
+        assertThat(tree.query(5, 5, 50, 50)).containsExactly("a");
+        assertThat(tree.query(-100, -100, 200, 200)).containsExactlyInAnyOrder("a", "b", "c");
+        // Touching edges count as overlap
+        assertThat(tree.query(10, 10, 20, 20)).containsExactly("a");
+        assertThat(tree.query(200, 200, 300, 300)).isEmpty();
+    }
+
+    @Test
+    void growsToHoldBoxesFarOutsideInitialExtent() {
+        QuadTree<String> tree = new QuadTree<>();
+        tree.put("near", "near", new Box(0, 0, 10, 10));
+        tree.put("far", "far", new Box(1_000_000, -2_000_000, 1_000_050, -1_999_950));
+
+        assertThat(tree.query(999_000, -2_001_000, 1_001_000, -1_999_000)).containsExactly("far");
+        assertThat(tree.query(-5, -5, 5, 5)).containsExactly("near");
+        assertThat(tree.size()).isEqualTo(2);
+    }
+
+    @Test
+    void movedBoxIsOnlyFoundAtItsNewPlace() {
+        QuadTree<String> tree = new QuadTree<>();
+        tree.put("a", "a", new Box(0, 0, 10, 10));
+        // Small move inside its quad, then a jump across split lines
+        tree.put("a", "a", new Box(2, 2, 12, 12));
+        assertThat(tree.query(11, 11, 11, 11)).containsExactly("a");
+
+        tree.put("a", "a", new Box(5000, 5000, 5010, 5010));
+        assertThat(tree.query(0, 0, 100, 100)).isEmpty();
+        assertThat(tree.query(5005, 5005, 5005, 5005)).containsExactly("a");
+        assertThat(tree.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removedBoxIsGone() {
+        QuadTree<String> tree = new QuadTree<>();
+        tree.put("a", "a", new Box(0, 0, 10, 10));
+
+        assertThat(tree.remove("a")).isTrue();
+        assertThat(tree.remove("a")).isFalse();
+        assertThat(tree.query(-100, -100, 100, 100)).isEmpty();
+        assertThat(tree.size()).isZero();
+    }
+
+    @Test
+    void matchesBruteForceAcrossSplitsMovesAndRemovals() {
+        Random random = new Random(42);
+        QuadTree<String> tree = new QuadTree<>();
+        Map<String, Box> boxes = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            String id = "n" + random.nextInt(800);
+            if (random.nextInt(10) == 0) {
+                tree.remove(id);
+                boxes.remove(id);
+            } else {
+                Box box = randomBox(random);
+                tree.put(id, id, box);
+                boxes.put(id, box);
+            }
+
+            if (step % 100 == 0) {
+                Box area = randomBox(random).grow(random.nextInt(2000));
+                assertThat(tree.query(area.minX(), area.minY(), area.maxX(), area.maxY()))
+                        .containsExactlyInAnyOrderElementsOf(bruteForce(boxes, area));
+            }
+        }
+        assertThat(tree.size()).isEqualTo(boxes.size());
+    }
+
+    private static Box randomBox(Random random) {
+        // Mostly small nodes packed densely enough to split quads, some large ones straddling lines
+        double width = random.nextInt(20) == 0 ? 500 + random.nextInt(3000) : 40 + random.nextInt(120);
+        double height = random.nextInt(20) == 0 ? 500 + random.nextInt(3000) : 30 + random.nextInt(60);
+        return Box.around(random.nextInt(8000) - 4000, random.nextInt(8000) - 4000, width, height);
+    }
+
+    private static List<String> bruteForce(Map<String, Box> boxes, Box area) {
+        return boxes.entrySet().stream()
+                .filter(entry -> entry.getValue().minX() <= area.maxX() && entry.getValue().maxX() >= area.minX()
+                        && entry.getValue().minY() <= area.maxY() && entry.getValue().maxY() >= area.minY())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}